@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Runs bench/vote-and-results.js against the backend twice, once with platform threads and once
+# with virtual threads, and keeps both k6 summaries side by side under bench/results/.
+#
+# Requires: docker compose, k6, an admin account, and an ONGOING election with one candidate.
+#   ADMIN_EMAIL=... ADMIN_PASSWORD=... ELECTION_ID=1 CANDIDATE_ID=1 ./bench/compare-thread-modes.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+: "${ADMIN_EMAIL:?}" "${ADMIN_PASSWORD:?}" "${ELECTION_ID:?}" "${CANDIDATE_ID:?}"
+BASE_URL=${BASE_URL:-http://localhost:${BACKEND_PORT:-8080}}
+OUT=Online_Voting_App/bench/results
+mkdir -p "$OUT"
+
+run() {
+    local mode=$1 virtual=$2
+    echo "== ${mode} threads =="
+    JAVA_VERSION=21 MAVEN_ARGS=-Pjava21 VIRTUAL_THREADS=${virtual} docker compose up -d --build backend
+    until curl -sf "${BASE_URL}/actuator/health" > /dev/null; do sleep 2; done
+    k6 run --quiet \
+        -e BASE_URL="${BASE_URL}" -e ADMIN_EMAIL="${ADMIN_EMAIL}" -e ADMIN_PASSWORD="${ADMIN_PASSWORD}" \
+        -e ELECTION_ID="${ELECTION_ID}" -e CANDIDATE_ID="${CANDIDATE_ID}" \
+        -e VOTERS="${VOTERS:-2000}" -e VUS="${VUS:-400}" -e DURATION="${DURATION:-60s}" -e RUN_ID="${mode}-$(date +%s)" \
+        --summary-export "${OUT}/${mode}.json" \
+        Online_Voting_App/bench/vote-and-results.js
+}
+
+run platform false
+run virtual true
+
+echo
+printf '%-10s %-28s %10s %10s %10s\n' mode metric avg p95 p99
+for mode in platform virtual; do
+    for metric in 'http_req_duration{endpoint:vote}' 'http_req_duration{endpoint:admin-results}' 'http_req_duration{endpoint:active-elections}'; do
+        jq -r --arg m "$metric" --arg mode "$mode" \
+            '.metrics[$m] // empty | [$mode, $m, (.avg|floor), (."p(95)"|floor), (."p(99)"|floor)] | @tsv' \
+            "${OUT}/${mode}.json" | awk -F'\t' '{printf "%-10s %-28s %10s %10s %10s\n", $1, substr($2,18), $3"ms", $4"ms", $5"ms"}'
+    done
+    jq -r --arg mode "$mode" '"\($mode)     requests/s: \(.metrics.http_reqs.rate|floor)"' "${OUT}/${mode}.json"
+done
@@ -0,0 +1,89 @@
+// k6 load script for comparing platform-thread and virtual-thread mode (see bench/README.md).
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e ADMIN_EMAIL=... -e ADMIN_PASSWORD=... \
+//          -e ELECTION_ID=1 -e CANDIDATE_ID=1 -e VOTERS=2000 bench/vote-and-results.js
+//
+// setup() registers VOTERS fresh voters on the election's roll and logs each one in (BCrypt-bound,
+// so it is slow and not measured). The "votes" scenario then casts one vote per voter while the
+// "results" scenario reads admin and voter results for the same election.
+import http from 'k6/http';
+import { check } from 'k6';
+import exec from 'k6/execution';
+
+const BASE = __ENV.BASE_URL || 'http://localhost:8080';
+const ELECTION_ID = Number(__ENV.ELECTION_ID);
+const CANDIDATE_ID = Number(__ENV.CANDIDATE_ID);
+const VOTERS = Number(__ENV.VOTERS || 1000);
+const VUS = Number(__ENV.VUS || 200);
+const DURATION = __ENV.DURATION || '60s';
+const RUN = __ENV.RUN_ID || `${Date.now()}`;
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+    setupTimeout: '30m',
+    scenarios: {
+        votes: {
+            executor: 'shared-iterations',
+            exec: 'vote',
+            vus: VUS,
+            iterations: VOTERS,
+            maxDuration: DURATION,
+        },
+        results: {
+            executor: 'constant-vus',
+            exec: 'results',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    // Thresholds on the tagged metrics make k6 report each endpoint separately
+    thresholds: {
+        'http_req_duration{endpoint:vote}': ['p(99)<30000'],
+        'http_req_duration{endpoint:admin-results}': ['p(99)<30000'],
+        'http_req_duration{endpoint:active-elections}': ['p(99)<30000'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function login(email, password) {
+    const res = http.post(`${BASE}/api/auth/login`, JSON.stringify({ email, password }), { headers: JSON_HEADERS });
+    check(res, { 'login ok': (r) => r.status === 200 });
+    return res.json('token');
+}
+
+function auth(token) {
+    return { headers: { ...JSON_HEADERS, Authorization: `Bearer ${token}` } };
+}
+
+export function setup() {
+    const admin = login(__ENV.ADMIN_EMAIL, __ENV.ADMIN_PASSWORD);
+    const voters = [];
+    for (let i = 0; i < VOTERS; i++) {
+        const voterId = `BENCH-${RUN}-${i}`;
+        const email = `${voterId.toLowerCase()}@bench.local`;
+        http.post(`${BASE}/api/allowed-voters`, JSON.stringify({ voterId, electionId: ELECTION_ID }), auth(admin));
+        http.post(`${BASE}/api/users/register`, JSON.stringify({
+            username: voterId, email, password: 'bench-pass', role: 'VOTER', voterId,
+        }), { headers: JSON_HEADERS });
+        voters.push({ voterId, token: login(email, 'bench-pass') });
+    }
+    return { admin, voters };
+}
+
+export function vote(data) {
+    const voter = data.voters[exec.scenario.iterationInTest];
+    const res = http.post(`${BASE}/api/votes`, JSON.stringify({
+        voterId: voter.voterId, candidateId: CANDIDATE_ID, electionId: ELECTION_ID,
+    }), { ...auth(voter.token), tags: { endpoint: 'vote' } });
+    check(res, { 'vote accepted': (r) => r.status === 200 });
+}
+
+export function results(data) {
+    const admin = http.get(`${BASE}/api/admin/results/election/${ELECTION_ID}`,
+        { ...auth(data.admin), tags: { endpoint: 'admin-results' } });
+    check(admin, { 'admin results ok': (r) => r.status === 200 });
+
+    const voter = data.voters[exec.vu.idInTest % data.voters.length];
+    const res = http.get(`${BASE}/api/elections/active`, { ...auth(voter.token), tags: { endpoint: 'active-elections' } });
+    check(res, { 'active elections ok': (r) => r.status === 200 });
+}
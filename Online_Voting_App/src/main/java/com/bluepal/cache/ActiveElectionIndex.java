@@ -0,0 +1,78 @@
+package com.bluepal.cache;
+
+import com.bluepal.dto.ElectionResponseDTO;
+import com.bluepal.entity.Election;
+import com.bluepal.repository.CandidateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Currently ONGOING elections, maintained by ElectionLifecycleScheduler, with the ids of their candidates
+ * (reloaded by CandidateServiceImpl / PartyServiceImpl whenever candidates change).
+ * Lets the vote path and the active-elections listing answer without querying the elections table.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveElectionIndex {
+
+    private final CandidateRepository candidateRepo;
+
+    private final Map<Long, ElectionResponseDTO> active = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> candidates = new ConcurrentHashMap<>();
+
+    public void put(Election election) {
+        candidates.put(election.getId(), Set.copyOf(candidateRepo.findIdsByElectionId(election.getId())));
+        active.put(election.getId(), ElectionResponseDTO.builder()
+                .id(election.getId())
+                .title(election.getTitle())
+                .description(election.getDescription())
+                .startDate(election.getStartDate())
+                .endDate(election.getEndDate())
+                .status(election.getStatus().name())
+                .maxVoters(election.getMaxVoters())
+                .createdAt(election.getCreatedAt())
+                .updatedAt(election.getUpdatedAt())
+                .build());
+    }
+
+    public void remove(Long electionId) {
+        active.remove(electionId);
+        candidates.remove(electionId);
+    }
+
+    // ------------------ Candidate changes ------------------
+    public void candidatesChanged(Long electionId) {
+        candidates.computeIfPresent(electionId, (id, current) -> Set.copyOf(candidateRepo.findIdsByElectionId(id)));
+    }
+
+    // A party was deleted, taking its candidates in any election with it
+    public void allCandidatesChanged() {
+        candidates.keySet().forEach(this::candidatesChanged);
+    }
+
+    public boolean hasCandidate(Long electionId, Long candidateId) {
+        Set<Long> ids = candidates.get(electionId);
+        return ids != null && ids.contains(candidateId);
+    }
+
+    public boolean isOpen(Long electionId, LocalDateTime now) {
+        ElectionResponseDTO election = active.get(electionId);
+        return election != null
+                && !now.isBefore(election.getStartDate())
+                && now.isBefore(election.getEndDate());
+    }
+
+    public List<ElectionResponseDTO> list() {
+        List<ElectionResponseDTO> elections = new ArrayList<>(active.values());
+        elections.sort(Comparator.comparing(ElectionResponseDTO::getEndDate));
+        return elections;
+    }
+}
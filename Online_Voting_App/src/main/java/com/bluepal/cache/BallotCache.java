@@ -0,0 +1,47 @@
+package com.bluepal.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-rendered ballots (an election with its candidates and their parties, as gzipped JSON), built by
+ * BallotServiceImpl. Admin changes to an election, a candidate or a party drop the ballots they show up
+ * in; the next read builds them again.
+ */
+@Component
+public class BallotCache {
+
+    private final Map<Long, Ballot> ballots = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a build that read the data before a change is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public Ballot get(Long electionId) {
+        return ballots.get(electionId);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // Kept only if nothing was invalidated since the build began (builtAt = generation() read before loading)
+    public void put(Long electionId, Ballot ballot, long builtAt) {
+        ballots.compute(electionId, (id, current) -> generation.get() == builtAt ? ballot : current);
+    }
+
+    public void invalidate(Long electionId) {
+        generation.incrementAndGet();
+        ballots.remove(electionId);
+    }
+
+    // A party appears on the ballot of every election it has candidates in
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        ballots.clear();
+    }
+
+    public record Ballot(byte[] gzip, String etag) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.bluepal.cache;
+
+import com.bluepal.entity.AllowedVoter;
+import com.bluepal.entity.User;
+import com.bluepal.repository.AllowedVoterRepository;
+import com.bluepal.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory voter rolls, one per election, used by the vote path instead of querying allowed_voters.
+ * A roll holds the user ids (the dense integer key for a voter id) of the registered voters on it in a
+ * compressed bitmap, loaded in keyset pages. Voter ids on the roll without an account take no memory:
+ * only account holders can vote, and a voter who registers later is added to the loaded rolls
+ * of the elections they are on by {@link #registered}.
+ * Rolls are loaded lazily and at most {@code voting.eligibility.max-loaded-elections} are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class EligibilityIndex {
+
+    private static final int LOAD_PAGE_SIZE = 50_000;
+
+    private final AllowedVoterRepository allowedVoterRepo;
+    private final UserRepository userRepo;
+
+    @Value("${voting.eligibility.max-loaded-elections:64}")
+    private int maxLoadedElections;
+
+    private final Map<Long, ElectionRoll> rolls = new ConcurrentHashMap<>();
+
+    // Bumped on every roll change so a load that raced with a change is not cached
+    private final AtomicLong modifications = new AtomicLong();
+
+    // ------------------ Vote path check (no SQL once the roll is loaded) ------------------
+    public boolean isAllowed(Long electionId, Long userId) {
+        return roll(electionId).contains(userId);
+    }
+
+    // ------------------ Keep loaded rolls in sync with allowed_voters ------------------
+    public void allow(Long electionId, String voterId) {
+        modifications.incrementAndGet();
+        ElectionRoll roll = rolls.get(electionId);
+        if (roll != null) {
+            userRepo.findByVoterId(voterId).map(User::getId).ifPresent(roll::add);
+        }
+    }
+
+    public void revoke(Long electionId, String voterId) {
+        modifications.incrementAndGet();
+        ElectionRoll roll = rolls.get(electionId);
+        if (roll != null) {
+            userRepo.findByVoterId(voterId).map(User::getId).ifPresent(roll::remove);
+        }
+    }
+
+    // A voter registered: put them on the loaded rolls of the elections they are allowed in
+    public void registered(Long userId, List<AllowedVoter> entries) {
+        modifications.incrementAndGet();
+        for (AllowedVoter entry : entries) {
+            ElectionRoll roll = rolls.get(entry.getElection().getId());
+            if (roll != null) {
+                roll.add(userId);
+            }
+        }
+    }
+
+    public void preload(Long electionId) {
+        roll(electionId);
+    }
+
+    public void evict(Long electionId) {
+        modifications.incrementAndGet();
+        rolls.remove(electionId);
+    }
+
+    // Used when a user's voterId changes, since rolls are keyed by user id
+    public void evictAll() {
+        modifications.incrementAndGet();
+        rolls.clear();
+    }
+
+    // ------------------ Lazy loading ------------------
+    private ElectionRoll roll(Long electionId) {
+        ElectionRoll roll = rolls.get(electionId);
+        if (roll != null) {
+            roll.lastAccess = System.nanoTime();
+            return roll;
+        }
+
+        long before = modifications.get();
+        ElectionRoll loaded = load(electionId);
+        if (modifications.get() != before) {
+            return loaded; // roll changed while loading; answer from it but don't cache it
+        }
+
+        ElectionRoll existing = rolls.putIfAbsent(electionId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        evictIfOverCapacity();
+        return loaded;
+    }
+
+    private ElectionRoll load(Long electionId) {
+        ElectionRoll roll = new ElectionRoll();
+
+        long afterUserId = 0;
+        List<Long> page;
+        do {
+            page = allowedVoterRepo.findRegisteredUserIds(electionId, afterUserId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (Long userId : page) {
+                roll.registered.add(toIndex(userId));
+            }
+            if (!page.isEmpty()) {
+                afterUserId = page.get(page.size() - 1);
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        roll.registered.runOptimize();
+        return roll;
+    }
+
+    private void evictIfOverCapacity() {
+        while (rolls.size() > maxLoadedElections) {
+            rolls.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .ifPresent(e -> rolls.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    private static int toIndex(Long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            throw new IllegalStateException("User id out of eligibility index range: " + userId);
+        }
+        return userId.intValue();
+    }
+
+    // ------------------ One election's roll ------------------
+    private static class ElectionRoll {
+        private final RoaringBitmap registered = new RoaringBitmap();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long lastAccess = System.nanoTime();
+
+        boolean contains(Long userId) {
+            lock.readLock().lock();
+            try {
+                return userId != null && registered.contains(toIndex(userId));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(Long userId) {
+            lock.writeLock().lock();
+            try {
+                registered.add(toIndex(userId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long userId) {
+            lock.writeLock().lock();
+            try {
+                registered.remove(toIndex(userId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
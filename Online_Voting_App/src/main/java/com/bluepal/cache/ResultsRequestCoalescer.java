@@ -0,0 +1,43 @@
+package com.bluepal.cache;
+
+import com.bluepal.dto.AdminElectionResultDTO;
+import com.bluepal.entity.ElectionResultSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer in front of both results endpoints, so a burst of identical requests
+ * for one election (e.g. right as it closes) costs one computation.
+ */
+@Component
+public class ResultsRequestCoalescer {
+
+    private final SingleFlight<Long, ElectionResultSnapshot> voterResults;
+    private final SingleFlight<Long, AdminElectionResultDTO> adminResults;
+
+    public ResultsRequestCoalescer(MeterRegistry meterRegistry,
+                                   @Value("${voting.results.coalesce-window-ms:1000}") long freshMillis) {
+        this.voterResults = new SingleFlight<>("voter", freshMillis, meterRegistry);
+        this.adminResults = new SingleFlight<>("admin", freshMillis, meterRegistry);
+    }
+
+    public ElectionResultSnapshot voterResults(Long electionId, Supplier<ElectionResultSnapshot> loader) {
+        return voterResults.get(electionId, loader);
+    }
+
+    // start submits the computation to the database workers; only the first caller's start runs
+    public CompletableFuture<AdminElectionResultDTO> adminResults(Long electionId,
+                                                                  Supplier<CompletableFuture<AdminElectionResultDTO>> start) {
+        return adminResults.getAsync(electionId, start);
+    }
+
+    // After an admin correction, don't keep serving the previous outcome for the rest of the window
+    public void invalidate(Long electionId) {
+        voterResults.invalidate(electionId);
+        adminResults.invalidate(electionId);
+    }
+}
@@ -0,0 +1,144 @@
+package com.bluepal.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical computations into one: the first caller for a key runs the loader,
+ * callers arriving while it runs wait on the same future, and callers within {@code freshMillis}
+ * after it finished reuse the outcome (result or error) instead of starting another computation.
+ * Outcomes are counted in {@code voting.results.requests} tagged by endpoint and outcome.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long freshNanos;
+
+    private final Counter computed;
+    private final Counter coalesced;
+    private final Counter reused;
+
+    public SingleFlight(String endpoint, long freshMillis, MeterRegistry meterRegistry) {
+        this.freshNanos = freshMillis * 1_000_000L;
+        this.computed = counter(meterRegistry, endpoint, "computed");
+        this.coalesced = counter(meterRegistry, endpoint, "coalesced");
+        this.reused = counter(meterRegistry, endpoint, "fresh");
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> current = flights.get(key);
+            if (current != null) {
+                if (!current.future.isDone()) {
+                    coalesced.increment();
+                    return await(current);
+                }
+                if (System.nanoTime() - current.completedAt < freshNanos) {
+                    reused.increment();
+                    return await(current);
+                }
+                flights.remove(key, current); // stale
+            }
+
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) != null) {
+                continue; // another caller started a flight first; join it
+            }
+            computed.increment();
+            try {
+                V value = loader.get();
+                mine.completedAt = System.nanoTime();
+                mine.future.complete(value);
+                return value;
+            } catch (Throwable e) {
+                // Errors too: an incomplete flight would leave every caller joining it waiting forever
+                mine.completedAt = System.nanoTime();
+                mine.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    // Asynchronous variant: only the first caller's start runs (e.g. a submit to the database workers),
+    // and every caller gets the shared outcome, so coalesced callers don't hold a worker while they wait
+    public CompletableFuture<V> getAsync(K key, Supplier<CompletableFuture<V>> start) {
+        while (true) {
+            Flight<V> current = flights.get(key);
+            if (current != null) {
+                if (!current.future.isDone()) {
+                    coalesced.increment();
+                    return current.future.copy();
+                }
+                if (System.nanoTime() - current.completedAt < freshNanos) {
+                    reused.increment();
+                    return current.future.copy();
+                }
+                flights.remove(key, current); // stale
+            }
+
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) != null) {
+                continue; // another caller started a flight first; join it
+            }
+            computed.increment();
+            CompletableFuture<V> started;
+            try {
+                started = start.get();
+            } catch (Throwable e) {
+                // Never started (e.g. the workers are saturated): later callers should try again, not reuse this
+                flights.remove(key, mine);
+                mine.completedAt = System.nanoTime();
+                mine.future.completeExceptionally(e);
+                throw e;
+            }
+            started.whenComplete((value, error) -> {
+                mine.completedAt = System.nanoTime();
+                if (error != null) {
+                    mine.future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                } else {
+                    mine.future.complete(value);
+                }
+            });
+            return mine.future.copy();
+        }
+    }
+
+    public void invalidate(K key) {
+        flights.remove(key);
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {
+            // Rethrow the loader's own exception so error handling sees the original message
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String endpoint, String outcome) {
+        return Counter.builder("voting.results.requests")
+                .description("Results requests by how they were answered")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+    }
+}
@@ -0,0 +1,175 @@
+package com.bluepal.cache;
+
+import com.bluepal.dto.CandidateVoteCountDTO;
+import com.bluepal.dto.TallyReconciliationDTO;
+import com.bluepal.ingest.VoteJournal;
+import com.bluepal.repository.VoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Live per-candidate vote counters for ongoing elections.
+ * Counters are seeded from the votes table when an election opens (or on startup, via
+ * ElectionLifecycleScheduler) and then kept current by castVote / deleteVote,
+ * so dashboard reads cost O(candidates) instead of a scan of the votes table.
+ * A vote or vote deletion holds an update stamp from before its write until its counter is updated;
+ * seeding takes the election's lock exclusively, so no vote is ever both in the table's count and
+ * still to be added to the counters.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoteTallyRegistry {
+
+    private static final Duration JOURNAL_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final VoteRepository voteRepo;
+    private final ObjectProvider<VoteJournal> voteJournal;
+
+    // electionId -> (candidateId -> counter)
+    private final Map<Long, Map<Long, LongAdder>> tallies = new ConcurrentHashMap<>();
+    // electionId -> updates in flight (read) vs. seeding (write); StampedLock, as a journaled vote ends on another thread
+    private final Map<Long, StampedLock> seedLocks = new ConcurrentHashMap<>();
+
+    // ------------------ Start (or re-seed) tracking an election ------------------
+    // Votes in flight finish first and new ones wait; with the journal, acknowledged votes are applied
+    // too, so the count is exactly what the counters start from. The transaction holds the connection
+    // before votes are held up, so waiting votes can't take the last one from the pool.
+    @Transactional(readOnly = true)
+    public void track(Long electionId) {
+        StampedLock lock = seedLock(electionId);
+        long stamp = lock.writeLock();
+        try {
+            if (!awaitJournal()) {
+                log.warn("Election {} tally seeded before all journaled votes were applied", electionId);
+            }
+            tallies.put(electionId, seed(voteRepo.countVotesByCandidate(electionId)));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void untrack(Long electionId) {
+        tallies.remove(electionId);
+    }
+
+    public boolean isTracked(Long electionId) {
+        return tallies.containsKey(electionId);
+    }
+
+    // ------------------ Updates from the vote path ------------------
+    // Taken before the vote is written (or deleted), released once increment / decrement / release ran
+    public long beginUpdate(Long electionId) {
+        return seedLock(electionId).readLock();
+    }
+
+    public void endUpdate(Long electionId, long stamp) {
+        seedLock(electionId).unlockRead(stamp);
+    }
+
+    public void increment(Long electionId, Long candidateId) {
+        Map<Long, LongAdder> counters = tallies.get(electionId);
+        if (counters != null) {
+            counters.computeIfAbsent(candidateId, id -> new LongAdder()).increment();
+        }
+    }
+
+    public void decrement(Long electionId, Long candidateId) {
+        Map<Long, LongAdder> counters = tallies.get(electionId);
+        if (counters != null) {
+            counters.computeIfAbsent(candidateId, id -> new LongAdder()).decrement();
+        }
+    }
+
+    // ------------------ Read live counts (empty if election is not tracked) ------------------
+    public Optional<Map<Long, Long>> counts(Long electionId) {
+        Map<Long, LongAdder> counters = tallies.get(electionId);
+        if (counters == null) {
+            return Optional.empty();
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        counters.forEach((candidateId, adder) -> counts.put(candidateId, adder.sum()));
+        return Optional.of(counts);
+    }
+
+    // ------------------ Reconciliation against the votes table ------------------
+    // Compares live counters with a GROUP BY over votes while no vote is in flight, so any difference is
+    // drift, and re-seeds the counters from the table (repaired). Nothing is repaired if acknowledged
+    // journal votes could not be applied in time (journalDrained false): the table is then behind.
+    @Transactional(readOnly = true)
+    public TallyReconciliationDTO reconcile(Long electionId) {
+        StampedLock lock = seedLock(electionId);
+        long stamp = lock.writeLock();
+        try {
+            boolean journalDrained = awaitJournal();
+            List<CandidateVoteCountDTO> rows = voteRepo.countVotesByCandidate(electionId);
+            Map<Long, Long> databaseCounts = rows.stream()
+                    .collect(Collectors.toMap(CandidateVoteCountDTO::getCandidateId, CandidateVoteCountDTO::getVoteCount));
+            Optional<Map<Long, Long>> live = counts(electionId);
+
+            if (live.isEmpty()) {
+                return TallyReconciliationDTO.builder()
+                        .electionId(electionId)
+                        .tracked(false)
+                        .consistent(true)
+                        .journalDrained(journalDrained)
+                        .databaseCounts(databaseCounts)
+                        .build();
+            }
+
+            Map<Long, Long> liveCounts = live.get();
+            liveCounts.values().removeIf(count -> count == 0);
+            boolean consistent = liveCounts.equals(databaseCounts);
+            boolean repaired = !consistent && journalDrained;
+            if (repaired) {
+                log.warn("Election {} tally drifted from the votes table, re-seeded: live {} vs table {}",
+                        electionId, liveCounts, databaseCounts);
+                tallies.put(electionId, seed(rows));
+            }
+
+            return TallyReconciliationDTO.builder()
+                    .electionId(electionId)
+                    .tracked(true)
+                    .consistent(consistent)
+                    .repaired(repaired)
+                    .journalDrained(journalDrained)
+                    .liveCounts(liveCounts)
+                    .databaseCounts(databaseCounts)
+                    .build();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static Map<Long, LongAdder> seed(List<CandidateVoteCountDTO> rows) {
+        Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+        for (CandidateVoteCountDTO row : rows) {
+            counters.computeIfAbsent(row.getCandidateId(), id -> new LongAdder()).add(row.getVoteCount());
+        }
+        return counters;
+    }
+
+    // Kept after untrack: a vote still holding a stamp must release it on the same lock
+    private StampedLock seedLock(Long electionId) {
+        return seedLocks.computeIfAbsent(electionId, id -> new StampedLock());
+    }
+
+    // True once every acknowledged vote is in the votes table (always true without the journal)
+    private boolean awaitJournal() {
+        VoteJournal journal = voteJournal.getIfAvailable();
+        return journal == null || journal.awaitApplied(JOURNAL_DRAIN_TIMEOUT);
+    }
+}
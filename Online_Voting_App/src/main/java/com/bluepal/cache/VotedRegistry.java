@@ -0,0 +1,116 @@
+package com.bluepal.cache;
+
+import com.bluepal.repository.VoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Already voted" set per election, checked before the vote INSERT.
+ * Each election keeps a lock-free paged bitset indexed by voter user id; claiming a bit is a single
+ * atomic OR, so concurrent duplicate submissions are rejected without touching MySQL.
+ * The (voter_id, election_id) unique constraint on votes stays the final guard.
+ */
+@Component
+@RequiredArgsConstructor
+public class VotedRegistry {
+
+    private static final int PAGE_SHIFT = 16;                  // 65,536 voters per page
+    private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+    private static final int WARM_PAGE_SIZE = 50_000;
+
+    private final VoteRepository voteRepo;
+
+    private final Map<Long, ElectionVoters> elections = new ConcurrentHashMap<>();
+
+    // ------------------ Load an election's voters from the votes table ------------------
+    public void warm(Long electionId) {
+        voters(electionId).ensureLoaded(electionId);
+    }
+
+    public void evict(Long electionId) {
+        elections.remove(electionId);
+    }
+
+    // ------------------ Vote path ------------------
+    // Marks the voter as having voted; false if they already had
+    public boolean claim(Long electionId, Long userId) {
+        ElectionVoters voters = voters(electionId);
+        voters.ensureLoaded(electionId);
+        return voters.set(toIndex(userId));
+    }
+
+    // Undo a claim whose vote was not stored
+    public void release(Long electionId, Long userId) {
+        ElectionVoters voters = elections.get(electionId);
+        if (voters != null) {
+            voters.clear(toIndex(userId));
+        }
+    }
+
+    private ElectionVoters voters(Long electionId) {
+        return elections.computeIfAbsent(electionId, id -> new ElectionVoters());
+    }
+
+    private static int toIndex(Long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            throw new IllegalStateException("User id out of voted registry range: " + userId);
+        }
+        return userId.intValue();
+    }
+
+    // ------------------ One election's bitset ------------------
+    private class ElectionVoters {
+        private final Map<Integer, AtomicLongArray> pages = new ConcurrentHashMap<>();
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private volatile boolean loaded;
+
+        void ensureLoaded(Long electionId) {
+            if (loaded) {
+                return;
+            }
+            loadLock.lock();
+            try {
+                if (loaded) {
+                    return;
+                }
+                long afterVoterId = 0;
+                List<Long> page;
+                do {
+                    page = voteRepo.findVoterIds(electionId, afterVoterId, PageRequest.of(0, WARM_PAGE_SIZE));
+                    for (Long voterId : page) {
+                        set(toIndex(voterId));
+                    }
+                    if (!page.isEmpty()) {
+                        afterVoterId = page.get(page.size() - 1);
+                    }
+                } while (page.size() == WARM_PAGE_SIZE);
+                loaded = true;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+
+        boolean set(int index) {
+            AtomicLongArray page = pages.computeIfAbsent(index >>> PAGE_SHIFT, p -> new AtomicLongArray(PAGE_BITS / 64));
+            int bit = index & (PAGE_BITS - 1);
+            long mask = 1L << (bit & 63);
+            return (page.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m) & mask) == 0;
+        }
+
+        void clear(int index) {
+            AtomicLongArray page = pages.get(index >>> PAGE_SHIFT);
+            if (page != null) {
+                int bit = index & (PAGE_BITS - 1);
+                long mask = 1L << (bit & 63);
+                page.getAndAccumulate(bit >>> 6, ~mask, (word, m) -> word & m);
+            }
+        }
+    }
+}
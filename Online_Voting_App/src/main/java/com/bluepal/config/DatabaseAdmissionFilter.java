@@ -0,0 +1,125 @@
+package com.bluepal.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for virtual-thread mode. With platform threads, Tomcat's pool caps how many
+ * requests can wait on HikariCP; with virtual threads there is no such cap, so this filter lets at
+ * most {@code voting.admission.max-concurrent-requests} API requests in at once (default: 4x the
+ * connection pool) and answers 503 to requests that can't get in within {@code max-wait-ms},
+ * instead of letting them all queue inside the pool until they time out.
+ * An asynchronous request (the CompletableFuture endpoints) keeps its permit until it completes,
+ * errors or times out, not just until the controller method returns.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final Counter rejected;
+
+    public DatabaseAdmissionFilter(@Value("${voting.admission.max-concurrent-requests:0}") int maxConcurrent,
+                                   @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                   @Value("${voting.admission.max-wait-ms:2000}") long maxWaitMillis,
+                                   MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : poolSize * 4;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.maxWaitMillis = maxWaitMillis;
+        this.rejected = Counter.builder("voting.admission.rejected")
+                .description("API requests turned away because too many were already in progress")
+                .register(meterRegistry);
+        Gauge.builder("voting.admission.in.flight", permits, p -> this.maxConcurrent - p.availablePermits())
+                .description("API requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy, please retry");
+            return;
+        }
+
+        Runnable release = releaseOnce();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // CompletableFuture endpoints: the request is still in progress, so is its database work
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    // Timeouts and errors are followed by onComplete as well; the permit must go back only once
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    private record ReleaseOnCompletion(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this); // listeners don't carry over to a restarted async cycle
+        }
+    }
+}
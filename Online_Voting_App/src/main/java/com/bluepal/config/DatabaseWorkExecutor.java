@@ -0,0 +1,68 @@
+package com.bluepal.config;
+
+import com.bluepal.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking part of the vote and results endpoints off the request thread.
+ * Controllers return the CompletableFuture, so the servlet request goes async and its thread goes back
+ * to Tomcat while the work waits here. The pool has one worker per database connection, so at most
+ * pool-size statements run at once. The queue is bounded: when the database falls behind the queue
+ * fills up and new requests get 503 right away, so backpressure reaches the HTTP layer.
+ */
+@Component
+public class DatabaseWorkExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public DatabaseWorkExecutor(@Value("${voting.async.db-threads:0}") int threads,
+                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                @Value("${voting.async.queue-capacity:10000}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
+        int workers = threads > 0 ? threads : poolSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "db-work-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("voting.async.rejected")
+                .description("Vote/results requests refused because the database work queue was full")
+                .register(meterRegistry);
+        Gauge.builder("voting.async.queue.depth", executor, e -> e.getQueue().size())
+                .description("Vote/results requests waiting for a database worker")
+                .register(meterRegistry);
+        Gauge.builder("voting.async.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Vote/results requests being processed")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Server is busy, please retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
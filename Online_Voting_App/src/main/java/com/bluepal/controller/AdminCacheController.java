@@ -0,0 +1,24 @@
+package com.bluepal.controller;
+
+import com.bluepal.dto.CacheRegionStatsDTO;
+import com.bluepal.service.impl.CacheStatisticsServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final CacheStatisticsServiceImpl cacheStatistics;
+
+    // Second-level cache hit/miss counts per region
+    @GetMapping("/regions")
+    public List<CacheRegionStatsDTO> getRegionStatistics() {
+        return cacheStatistics.regionStatistics();
+    }
+}
@@ -0,0 +1,24 @@
+package com.bluepal.controller;
+
+import com.bluepal.entity.RejectedVote;
+import com.bluepal.service.impl.VoteServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/ingest")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminIngestController {
+
+    private final VoteServiceImpl voteService;
+
+    // Acknowledged votes the journal could not apply; they are missing from the votes table until re-entered
+    @GetMapping("/rejected-votes")
+    public List<RejectedVote> getRejectedVotes() {
+        return voteService.findRejectedVotes();
+    }
+}
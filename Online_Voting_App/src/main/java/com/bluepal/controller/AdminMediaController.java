@@ -0,0 +1,22 @@
+package com.bluepal.controller;
+
+import com.bluepal.dto.MediaMigrationDTO;
+import com.bluepal.service.impl.MediaServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/media")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMediaController {
+
+    private final MediaServiceImpl mediaService;
+
+    // Move images still stored as MySQL LOBs into the filesystem media store
+    @PostMapping("/migrate")
+    public MediaMigrationDTO migrateToBlobStore() {
+        return mediaService.migrateToBlobStore();
+    }
+}
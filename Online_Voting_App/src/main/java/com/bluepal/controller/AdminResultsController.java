@@ -1,20 +1,22 @@
 package com.bluepal.controller;
 
-import com.bluepal.dto.AdminCandidateResultDTO;
+import com.bluepal.cache.ResultsRequestCoalescer;
+import com.bluepal.config.DatabaseWorkExecutor;
+import com.bluepal.cache.VoteTallyRegistry;
 import com.bluepal.dto.AdminElectionResultDTO;
-import com.bluepal.entity.Candidate;
-import com.bluepal.entity.Election;
-import com.bluepal.entity.Vote;
-import com.bluepal.service.impl.CandidateServiceImpl;
-import com.bluepal.service.impl.ElectionServiceImpl;
-import com.bluepal.service.impl.VoteServiceImpl;
+import com.bluepal.dto.ResultSnapshotDTO;
+import com.bluepal.dto.TallyReconciliationDTO;
+import com.bluepal.service.impl.ElectionResultsServiceImpl;
+import com.bluepal.entity.ElectionStatus;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.service.impl.ResultSnapshotServiceImpl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/admin/results")
@@ -22,60 +24,56 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminResultsController {
 
-    private final VoteServiceImpl voteService;
-    private final CandidateServiceImpl candidateService;
-    private final ElectionServiceImpl electionService;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ElectionResultsServiceImpl resultsService;
+    private final VoteTallyRegistry tallyRegistry;
+    private final ResultSnapshotServiceImpl snapshotService;
+    private final ResultsRequestCoalescer coalescer;
+    private final DatabaseWorkExecutor dbWork;
 
     // Get detailed results for a specific election
     @GetMapping("/election/{electionId}")
-    public AdminElectionResultDTO getElectionResults(@PathVariable Long electionId) {
-        Election election = electionService.findById(electionId)
-                .orElseThrow(() -> new RuntimeException("Election not found"));
-
-        List<Candidate> candidates = candidateService.findByElection(election);
-        List<Vote> votes = voteService.findByElection(election);
-        long totalVotes = votes.size();
-
-        List<AdminCandidateResultDTO> candidateResults = candidates.stream().map(c -> {
-            long voteCount = votes.stream()
-                    .filter(v -> v.getCandidate().getId().equals(c.getId()))
-                    .count();
-            double percentage = totalVotes == 0 ? 0 : ((double) voteCount / totalVotes) * 100;
-
-            return AdminCandidateResultDTO.builder()
-                    .candidateId(c.getId())
-                    .candidateName(c.getName())
-                    .candidatePhoto(c.getPhoto())
-                    .partyName(c.getParty().getName())
-                    .partyLogo(c.getParty().getLogo())
-                    .voteCount(voteCount)
-                    .percentage(percentage)
-                    // ✅ extra admin fields
-                    .candidateBio(c.getBio())
-                    .electionId(election.getId())
-                    .partyId(c.getParty().getId())
-                    .build();
-        }).sorted((a, b) -> Long.compare(b.getVoteCount(), a.getVoteCount()))
-          .collect(Collectors.toList());
+    public CompletableFuture<AdminElectionResultDTO> getElectionResults(@PathVariable Long electionId) {
+        // Coalesced before submitting: identical requests share one worker instead of each blocking one
+        return coalescer.adminResults(electionId, () -> dbWork.submit(() -> resultsService.getAdminElectionResults(electionId)));
+    }
 
-        AdminCandidateResultDTO winner = candidateResults.isEmpty() ? null : candidateResults.get(0);
+    // Get results for all elections (optionally one page, optionally only one status)
+    @GetMapping("/all")
+    public CompletableFuture<List<AdminElectionResultDTO>> getAllElectionResults(@RequestParam(required = false) String status,
+                                                              @RequestParam(required = false) Integer page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        ElectionStatus electionStatus = null;
+        if (status != null) {
+            try {
+                electionStatus = ElectionStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ResourceNotFoundException("Invalid election status");
+            }
+        }
+        if (page != null && (page < 0 || size < 1 || size > MAX_PAGE_SIZE)) {
+            throw new RuntimeException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        ElectionStatus filter = electionStatus;
+        return dbWork.submit(() -> resultsService.getAdminElectionResults(filter, page, size));
+    }
 
-        return AdminElectionResultDTO.builder()
-                .electionId(election.getId())
-                .title(election.getTitle())
-                .startDate(election.getStartDate())
-                .endDate(election.getEndDate())
-                .totalVotes(totalVotes)
-                .candidateResults(candidateResults)
-                .winner(winner)
-                .build();
+    // Compare live tally counters with the votes table, re-seeding them if they drifted
+    @PostMapping("/election/{electionId}/reconcile")
+    public TallyReconciliationDTO reconcileTally(@PathVariable Long electionId) {
+        TallyReconciliationDTO reconciliation = tallyRegistry.reconcile(electionId);
+        if (reconciliation.isRepaired()) {
+            coalescer.invalidate(electionId);
+        }
+        return reconciliation;
     }
 
-    // Get results for all elections
-    @GetMapping("/all")
-    public List<AdminElectionResultDTO> getAllElectionResults() {
-        return electionService.findAll().stream()
-                .map(election -> getElectionResults(election.getId()))
-                .collect(Collectors.toList());
+    // Rebuild the frozen voter-facing results of an ended election (corrections only)
+    @PostMapping("/election/{electionId}/snapshot")
+    public ResultSnapshotDTO recomputeSnapshot(@PathVariable Long electionId) {
+        ResultSnapshotDTO snapshot = snapshotService.recompute(electionId);
+        coalescer.invalidate(electionId);
+        return snapshot;
     }
 }
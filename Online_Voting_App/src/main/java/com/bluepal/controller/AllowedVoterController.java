@@ -7,13 +7,19 @@ import com.bluepal.entity.Election;
 import com.bluepal.exception.ResourceNotFoundException;
 import com.bluepal.service.impl.AllowedVoterServiceImpl;
 import com.bluepal.service.impl.ElectionServiceImpl;
+import com.bluepal.service.impl.ResourceVersionServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.bluepal.service.impl.ResourceVersionServiceImpl.REVALIDATE;
+
 @RestController
 @RequestMapping("/api/allowed-voters")
 @RequiredArgsConstructor
@@ -21,6 +27,7 @@ public class AllowedVoterController {
 
     private final AllowedVoterServiceImpl allowedVoterService;
     private final ElectionServiceImpl electionService;
+    private final ResourceVersionServiceImpl versionService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -46,13 +53,19 @@ public class AllowedVoterController {
         return "Allowed voter removed successfully";
     }
     
+    // Conditional GET: If-None-Match with the last ETag is answered 304 while the voter's roll entries
+    // and their elections are unchanged
     @GetMapping("/voter/{voterId}")
     @PreAuthorize("hasRole('VOTER')")
-    public List<AllowedVoterResponseDTO> getAllowedElectionsByVoter(@PathVariable String voterId) {
-        return allowedVoterService.findByVoterId(voterId)
+    public ResponseEntity<List<AllowedVoterResponseDTO>> getAllowedElectionsByVoter(@PathVariable String voterId,
+                                                                                    WebRequest request) {
+        if (versionService.voterElectionsNotModified(voterId, request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(allowedVoterService.findByVoterId(voterId)
                 .stream()
                 .map(allowedVoterService::mapToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
 }
@@ -32,7 +32,7 @@ public class AuthController {
         User user = userRepo.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user);
 
         return ResponseEntity.ok(
         		new AuthResponseDTO(
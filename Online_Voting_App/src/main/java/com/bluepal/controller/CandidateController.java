@@ -2,19 +2,23 @@ package com.bluepal.controller;
 
 import com.bluepal.dto.CandidateRequestDTO;
 import com.bluepal.dto.CandidateResponseDTO;
-import com.bluepal.entity.Candidate;
-import com.bluepal.entity.Election;
-import com.bluepal.entity.Party;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.exception.ResourceNotFoundException;
 import com.bluepal.service.impl.CandidateServiceImpl;
-import com.bluepal.service.impl.ElectionServiceImpl;
 import com.bluepal.service.impl.PartyServiceImpl;
+import com.bluepal.service.impl.ResourceVersionServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.bluepal.service.impl.ResourceVersionServiceImpl.REVALIDATE;
 
 @RestController
 @RequestMapping("/api/candidates")
@@ -23,7 +27,7 @@ public class CandidateController {
 
     private final CandidateServiceImpl candidateService;
     private final PartyServiceImpl partyService;
-    private final ElectionServiceImpl electionService;
+    private final ResourceVersionServiceImpl versionService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -31,16 +35,18 @@ public class CandidateController {
         return candidateService.createCandidate(dto);
     }
 
+    // fields / expand: see FieldSelection (expand: party, election)
     @GetMapping
-    public List<CandidateResponseDTO> getAllCandidates() {
-        return candidateService.getAllCandidates();
+    public List<CandidateResponseDTO> getAllCandidates(@RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) String expand) {
+        return candidateService.getCandidates(null, null, candidateService.selection(fields, expand));
     }
 
     @GetMapping("/{id}")
-    public CandidateResponseDTO getCandidateById(@PathVariable Long id) {
-        Candidate candidate = candidateService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Candidate not found"));
-        return candidateService.mapToDTO(candidate);
+    public CandidateResponseDTO getCandidateById(@PathVariable Long id,
+                                                 @RequestParam(required = false) String fields,
+                                                 @RequestParam(required = false) String expand) {
+        return candidateService.getCandidate(id, candidateService.selection(fields, expand));
     }
 
     @DeleteMapping("/{id}")
@@ -50,20 +56,28 @@ public class CandidateController {
         return "Candidate deleted successfully";
     }
 
+    // Conditional GET: If-None-Match with the last ETag is answered 304 while the election, its candidates
+    // and their parties are unchanged (the version lookup also answers 404 for an unknown election)
     @GetMapping("/election/{electionId}")
-    public List<CandidateResponseDTO> getCandidatesByElection(@PathVariable Long electionId) {
-        Election election = electionService.findById(electionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Election not found"));
-        return candidateService.findByElection(election)
-                .stream().map(candidateService::mapToDTO).collect(Collectors.toList());
+    public ResponseEntity<List<CandidateResponseDTO>> getCandidatesByElection(@PathVariable Long electionId,
+                                                                              @RequestParam(required = false) String fields,
+                                                                              @RequestParam(required = false) String expand,
+                                                                              WebRequest request) {
+        FieldSelection selection = candidateService.selection(fields, expand);
+        if (versionService.electionCandidatesNotModified(electionId, request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(candidateService.getCandidates(electionId, null, selection));
     }
 
     @GetMapping("/party/{partyId}")
-    public List<CandidateResponseDTO> getCandidatesByParty(@PathVariable Long partyId) {
-        Party party = partyService.findById(partyId)
+    public List<CandidateResponseDTO> getCandidatesByParty(@PathVariable Long partyId,
+                                                           @RequestParam(required = false) String fields,
+                                                           @RequestParam(required = false) String expand) {
+        FieldSelection selection = candidateService.selection(fields, expand);
+        partyService.findById(partyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Party not found"));
-        return candidateService.findByParty(party)
-                .stream().map(candidateService::mapToDTO).collect(Collectors.toList());
+        return candidateService.getCandidates(null, partyId, selection);
     }
     
     @PutMapping("/{id}")
@@ -72,4 +86,11 @@ public class CandidateController {
         return candidateService.updateCandidate(id, dto);
     }
 
+    // Multipart upload (part "file"), streamed to storage; the size limit is spring.servlet.multipart.max-file-size
+    @PutMapping(value = "/{id}/photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public CandidateResponseDTO updatePhoto(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        return candidateService.updatePhoto(id, file);
+    }
+
 }
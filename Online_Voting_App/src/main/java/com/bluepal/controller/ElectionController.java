@@ -1,24 +1,39 @@
 package com.bluepal.controller;
 
+import com.bluepal.cache.BallotCache.Ballot;
 import com.bluepal.dto.ElectionRequestDTO;
 import com.bluepal.dto.ElectionResponseDTO;
-import com.bluepal.entity.Election;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.entity.ElectionStatus;
 import com.bluepal.exception.ResourceNotFoundException;
 import com.bluepal.service.ElectionService;
+import com.bluepal.service.impl.BallotServiceImpl;
+import com.bluepal.service.impl.ResourceVersionServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.bluepal.service.impl.ResourceVersionServiceImpl.REVALIDATE;
 
 @RestController
 @RequestMapping("/api/elections")
 @RequiredArgsConstructor
 public class ElectionController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ElectionService electionService;
+    private final ResourceVersionServiceImpl versionService;
+    private final BallotServiceImpl ballotService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -26,18 +41,51 @@ public class ElectionController {
         return electionService.createElection(dto);
     }
 
+    // fields / expand: see FieldSelection (expand: candidates, candidates.party).
+    // page (from 0) / size / sort ("startDate,desc"): one page, total in X-Total-Count; without page, all elections.
+    // Conditional GET: If-None-Match with the last ETag is answered 304 while no election, candidate or party changed
     @GetMapping
-    public List<ElectionResponseDTO> getAllElections() {
-        return electionService.findAll().stream()
-                .map(electionService::mapToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ElectionResponseDTO>> getAllElections(@RequestParam(required = false) String fields,
+                                                                     @RequestParam(required = false) String expand,
+                                                                     @RequestParam(required = false) Integer page,
+                                                                     @RequestParam(defaultValue = "20") int size,
+                                                                     @RequestParam(required = false) String sort,
+                                                                     WebRequest request) {
+        return listElections(null, fields, expand, page, size, sort, request);
+    }
+
+    @GetMapping("/active")
+    public List<ElectionResponseDTO> getActiveElections() {
+        return electionService.findActive();
     }
 
     @GetMapping("/{id}")
-    public ElectionResponseDTO getElectionById(@PathVariable Long id) {
-        Election election = electionService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Election not found"));
-        return electionService.mapToDTO(election);
+    public ElectionResponseDTO getElectionById(@PathVariable Long id,
+                                               @RequestParam(required = false) String fields,
+                                               @RequestParam(required = false) String expand) {
+        return electionService.getElection(id, electionService.selection(fields, expand));
+    }
+
+    // What voters vote on, identical for all of them: pre-rendered gzipped JSON sent as is
+    // (unzipped only for clients without gzip). The ETag is weak as it covers both encodings.
+    @GetMapping("/{id}/ballot")
+    public ResponseEntity<byte[]> getBallot(@PathVariable Long id, WebRequest request) {
+        Ballot ballot = ballotService.getBallot(id);
+        if (request.checkNotModified("W/\"" + ballot.etag() + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(ballot.gzip());
+        }
+        return response.body(ballotService.json(ballot));
     }
 
     @DeleteMapping("/{id}")
@@ -48,7 +96,13 @@ public class ElectionController {
     }
 
     @GetMapping("/status/{status}")
-    public List<ElectionResponseDTO> getElectionsByStatus(@PathVariable String status) {
+    public ResponseEntity<List<ElectionResponseDTO>> getElectionsByStatus(@PathVariable String status,
+                                                                          @RequestParam(required = false) String fields,
+                                                                          @RequestParam(required = false) String expand,
+                                                                          @RequestParam(required = false) Integer page,
+                                                                          @RequestParam(defaultValue = "20") int size,
+                                                                          @RequestParam(required = false) String sort,
+                                                                          WebRequest request) {
         ElectionStatus electionStatus;
         try {
             electionStatus = ElectionStatus.valueOf(status.toUpperCase());
@@ -56,9 +110,26 @@ public class ElectionController {
             throw new ResourceNotFoundException("Invalid election status");
         }
 
-        return electionService.findByStatus(electionStatus).stream()
-                .map(electionService::mapToDTO)
-                .collect(Collectors.toList());
+        return listElections(electionStatus, fields, expand, page, size, sort, request);
+    }
+
+    private ResponseEntity<List<ElectionResponseDTO>> listElections(ElectionStatus status, String fields, String expand,
+                                                                    Integer page, int size, String sort,
+                                                                    WebRequest request) {
+        if (page != null && (page < 0 || size < 1 || size > MAX_PAGE_SIZE)) {
+            throw new RuntimeException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Pageable pageable = electionService.pageRequest(page, size, sort);
+        FieldSelection selection = electionService.selection(fields, expand);
+        if (versionService.catalogNotModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        Page<ElectionResponseDTO> elections = electionService.getElections(status, pageable, selection);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (page != null) {
+            response.header("X-Total-Count", String.valueOf(elections.getTotalElements()));
+        }
+        return response.body(elections.getContent());
     }
 
     // ✅ Update endpoint (delegates to service)
@@ -0,0 +1,110 @@
+package com.bluepal.controller;
+
+import com.bluepal.entity.ImageRendition;
+import com.bluepal.entity.ImageSize;
+import com.bluepal.service.impl.MediaServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    // A versioned URL always names the same bytes, so it never needs revalidating
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final MediaServiceImpl mediaService;
+
+    // size = thumbnail | ballot | full; without it the original upload is returned
+    @GetMapping("/candidates/{candidateId}/photo")
+    public ResponseEntity<byte[]> getCandidatePhoto(@PathVariable Long candidateId,
+                                                    @RequestParam(name = "v", required = false) String version,
+                                                    @RequestParam(required = false) String size,
+                                                    HttpServletRequest request,
+                                                    HttpServletResponse response) throws IOException {
+        return serve(mediaService.candidatePhotoHash(candidateId), version, size, request, response,
+                () -> mediaService.candidatePhoto(candidateId));
+    }
+
+    @GetMapping("/parties/{partyId}/logo")
+    public ResponseEntity<byte[]> getPartyLogo(@PathVariable Long partyId,
+                                               @RequestParam(name = "v", required = false) String version,
+                                               @RequestParam(required = false) String size,
+                                               HttpServletRequest request,
+                                               HttpServletResponse response) throws IOException {
+        return serve(mediaService.partyLogoHash(partyId), version, size, request, response,
+                () -> mediaService.partyLogo(partyId));
+    }
+
+    private ResponseEntity<byte[]> serve(String hash, String version, String size,
+                                         HttpServletRequest request, HttpServletResponse response,
+                                         Supplier<byte[]> original) throws IOException {
+        // Unversioned or outdated URLs are revalidated, otherwise a replaced image would stick in caches
+        boolean versioned = hash.equals(version);
+        ImageSize rendition = mediaService.parseSize(size);
+
+        if (rendition != null && mediaService.hasRendition(hash, rendition)) {
+            return respond(hash + "-" + rendition.name().toLowerCase(), versioned ? IMMUTABLE : CacheControl.noCache(),
+                    request, response, () -> {
+                        ImageRendition stored = mediaService.rendition(hash, rendition);
+                        MediaType type = MediaType.parseMediaType(stored.getContentType());
+                        return mediaService.blobFile(stored.getDataHash())
+                                .map(file -> new Content(type, null, file))
+                                .orElseGet(() -> new Content(type, stored.getData(), null));
+                    });
+        }
+        // No size asked for, or the rendition is still processing (then revalidated so it replaces the original)
+        CacheControl cacheControl = rendition == null && versioned ? IMMUTABLE : CacheControl.noCache();
+        return respond(hash, cacheControl, request, response, () -> {
+            Path file = mediaService.blobFile(hash).orElse(null);
+            if (file != null) {
+                return new Content(mediaService.contentTypeOf(file), null, file);
+            }
+            byte[] data = original.get();
+            return new Content(mediaService.contentTypeOf(data), data, null);
+        });
+    }
+
+    // The ETag check needs only hashes; image bytes are read only for a 200.
+    // Files from the media store are written straight to the response, bypassing the message converters.
+    private ResponseEntity<byte[]> respond(String etag, CacheControl cacheControl,
+                                           HttpServletRequest request, HttpServletResponse response,
+                                           Supplier<Content> content) throws IOException {
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        Content body = content.get();
+        if (MediaServiceImpl.SVG.equalsTypeAndSubtype(body.type())) {
+            // Left from before SVG uploads were refused: download it, never render it as a page on this origin
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+            response.setHeader("Content-Security-Policy", "sandbox");
+        }
+        if (body.file() != null) {
+            response.setContentType(body.type().toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            mediaService.sendBlob(body.file(), request, response);
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(body.type())
+                .cacheControl(cacheControl)
+                .body(body.data());
+    }
+
+    private record Content(MediaType type, byte[] data, Path file) {
+    }
+}
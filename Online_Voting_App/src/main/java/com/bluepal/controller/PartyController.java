@@ -1,16 +1,23 @@
 package com.bluepal.controller;
 
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.dto.PartyRequestDTO;
 import com.bluepal.dto.PartyResponseDTO;
 import com.bluepal.entity.Party;
-import com.bluepal.exception.ResourceNotFoundException;
 import com.bluepal.service.impl.PartyServiceImpl;
+import com.bluepal.service.impl.ResourceVersionServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.bluepal.service.impl.ResourceVersionServiceImpl.REVALIDATE;
 
 @RestController
 @RequestMapping("/api/parties")
@@ -18,6 +25,7 @@ import java.util.stream.Collectors;
 public class PartyController {
 
     private final PartyServiceImpl partyService;
+    private final ResourceVersionServiceImpl versionService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -33,18 +41,24 @@ public class PartyController {
         return partyService.mapToDTO(party);
     }
 
+    // fields / expand: see FieldSelection (expand: candidates, candidates.election).
+    // Conditional GET: If-None-Match with the last ETag is answered 304 while no party, candidate or election changed
     @GetMapping
-    public List<PartyResponseDTO> getAllParties() {
-        return partyService.findAll().stream()
-                .map(partyService::mapToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<PartyResponseDTO>> getAllParties(@RequestParam(required = false) String fields,
+                                                                @RequestParam(required = false) String expand,
+                                                                WebRequest request) {
+        FieldSelection selection = partyService.selection(fields, expand);
+        if (versionService.catalogNotModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(partyService.getParties(selection));
     }
 
     @GetMapping("/{id}")
-    public PartyResponseDTO getPartyById(@PathVariable Long id) {
-        Party party = partyService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Party not found"));
-        return partyService.mapToDTO(party);
+    public PartyResponseDTO getPartyById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestParam(required = false) String expand) {
+        return partyService.getParty(id, partyService.selection(fields, expand));
     }
 
     @DeleteMapping("/{id}")
@@ -60,4 +74,11 @@ public class PartyController {
         return partyService.updateParty(id, dto);
     }
 
+    // Multipart upload (part "file"), streamed to storage; the size limit is spring.servlet.multipart.max-file-size
+    @PutMapping(value = "/{id}/logo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public PartyResponseDTO updateLogo(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        return partyService.updateLogo(id, file);
+    }
+
 }
@@ -1,6 +1,9 @@
 package com.bluepal.controller;
 
+import com.bluepal.config.DatabaseWorkExecutor;
 import com.bluepal.dto.ElectionResponseDTO;
+import com.bluepal.dto.FieldSelection;
+import com.bluepal.dto.UserResponseDTO;
 import com.bluepal.dto.VoteRequestDTO;
 import com.bluepal.dto.VoteResponseDTO;
 import com.bluepal.entity.Vote;
@@ -9,14 +12,17 @@ import com.bluepal.entity.User;
 import com.bluepal.entity.Election;
 import com.bluepal.entity.Candidate;
 import com.bluepal.service.impl.VoteServiceImpl;
-import com.bluepal.service.impl.UserServiceImpl;
 import com.bluepal.service.impl.ElectionServiceImpl;
 import com.bluepal.service.impl.CandidateServiceImpl;
+import com.bluepal.security.JwtUserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,41 +31,70 @@ import java.util.stream.Collectors;
 public class VoteController {
 
     private final VoteServiceImpl voteService;
-    private final UserServiceImpl userService;
     private final ElectionServiceImpl electionService;
     private final CandidateServiceImpl candidateService;
+    private final DatabaseWorkExecutor dbWork;
+
+    // Nested objects a vote can return
+    private static final Set<String> EXPANSIONS = Set.of("voter", "candidate", "candidate.party",
+            "candidate.election", "election", "election.candidates", "election.candidates.party");
 
     @PostMapping
     @PreAuthorize("hasRole('VOTER')")
-    public VoteResponseDTO castVote(@RequestBody VoteRequestDTO dto) {
-    	System.out.println("a");
-        return voteService.castVote(dto);
+    public CompletableFuture<VoteResponseDTO> castVote(@RequestBody VoteRequestDTO dto,
+                                                       @AuthenticationPrincipal Object principal) {
+        // The token already names the voter's user id; skip the lookup when voting as oneself
+        Long voterUserId = principal instanceof JwtUserPrincipal voter && dto.getVoterId() != null
+                && dto.getVoterId().equals(voter.getVoterId()) ? voter.getId() : null;
+        if (voteService.isJournaled()) {
+            // Checked in memory and acknowledged from the journal: no database worker or connection held
+            return voteService.castJournaledVote(dto, voterUserId);
+        }
+        return dbWork.submit(() -> voteService.castVote(dto, voterUserId));
     }
 
+    // fields / expand: see FieldSelection; without expand every nested object below is returned
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public List<VoteResponseDTO> getAllVotes() {
-        return voteService.findAllVotes()
+    public List<VoteResponseDTO> getAllVotes(@RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) String expand) {
+        FieldSelection selection = FieldSelection.parse(fields, expand, EXPANSIONS, EXPANSIONS);
+        return voteService.findVotes(selection)
                 .stream()
-                .map(this::mapToDTO)
+                .map(vote -> mapToDTO(vote, selection))
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public VoteResponseDTO getVoteById(@PathVariable Long id) {
-        Vote vote = voteService.findById(id)
+    public VoteResponseDTO getVoteById(@PathVariable Long id,
+                                       @RequestParam(required = false) String fields,
+                                       @RequestParam(required = false) String expand) {
+        FieldSelection selection = FieldSelection.parse(fields, expand, EXPANSIONS, EXPANSIONS);
+        Vote vote = voteService.findVote(id, selection)
                 .orElseThrow(() -> new ResourceNotFoundException("Vote not found"));
-        return mapToDTO(vote);
+        return mapToDTO(vote, selection);
     }
 
-    private VoteResponseDTO mapToDTO(Vote vote) {
+    private VoteResponseDTO mapToDTO(Vote vote, FieldSelection selection) {
         return VoteResponseDTO.builder()
                 .id(vote.getId())
-                .voter(userService.mapToDTO(vote.getVoter()))
-                .candidate(candidateService.mapToDTO(vote.getCandidate()))
-                .election(electionService.mapToDTO(vote.getElection()))
-                .castAt(vote.getCastAt())
+                .voter(selection.expands("voter") ? mapVoterToDTO(vote.getVoter(), selection.nested("voter")) : null)
+                .candidate(selection.expands("candidate")
+                        ? candidateService.mapToDTO(vote.getCandidate(), selection.nested("candidate")) : null)
+                .election(selection.expands("election")
+                        ? electionService.mapToDTO(vote.getElection(), selection.nested("election")) : null)
+                .castAt(selection.includes("castAt") ? vote.getCastAt() : null)
+                .build();
+    }
+
+    private UserResponseDTO mapVoterToDTO(User voter, FieldSelection selection) {
+        return UserResponseDTO.builder()
+                .id(voter.getId())
+                .username(selection.includes("username") ? voter.getUsername() : null)
+                .email(selection.includes("email") ? voter.getEmail() : null)
+                .voterId(selection.includes("voterId") ? voter.getVoterId() : null)
+                .role(selection.includes("role") ? voter.getRole().name() : null)
                 .build();
     }
     
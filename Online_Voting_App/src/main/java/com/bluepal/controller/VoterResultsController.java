@@ -1,73 +1,39 @@
 package com.bluepal.controller;
 
-import com.bluepal.dto.CandidateResultDTO;
-import com.bluepal.dto.ElectionResultDTO;
-import com.bluepal.entity.Candidate;
-import com.bluepal.entity.Election;
-import com.bluepal.entity.Vote;
-import com.bluepal.service.impl.CandidateServiceImpl;
-import com.bluepal.service.impl.ElectionServiceImpl;
-import com.bluepal.service.impl.VoteServiceImpl;
+import com.bluepal.cache.ResultsRequestCoalescer;
+import com.bluepal.entity.ElectionResultSnapshot;
+import com.bluepal.service.impl.ResultSnapshotServiceImpl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/results")
 @RequiredArgsConstructor
 public class VoterResultsController {
 
-    private final VoteServiceImpl voteService;
-    private final CandidateServiceImpl candidateService;
-    private final ElectionServiceImpl electionService;
+    private final ResultSnapshotServiceImpl snapshotService;
+    private final ResultsRequestCoalescer coalescer;
 
-    // Get results for a specific election (after election ends)
+    // Get results for a specific election (after election ends), served from the frozen snapshot
     @GetMapping("/election/{electionId}")
-    public ElectionResultDTO getElectionResults(@PathVariable Long electionId) {
-        Election election = electionService.findById(electionId)
-                .orElseThrow(() -> new RuntimeException("Election not found"));
+    public ResponseEntity<byte[]> getElectionResults(@PathVariable Long electionId, WebRequest request) {
+        ElectionResultSnapshot snapshot = coalescer.voterResults(electionId, () -> snapshotService.getSnapshot(electionId));
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate();
 
-        // Restrict voters from seeing results before election ends
-        if (LocalDateTime.now().isBefore(election.getEndDate())) {
-            throw new RuntimeException("Results not available until the election ends");
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
         }
-
-        List<Candidate> candidates = candidateService.findByElection(election);
-        List<Vote> votes = voteService.findByElection(election);
-        long totalVotes = votes.size();
-
-        List<CandidateResultDTO> candidateResults = candidates.stream().map(c -> {
-            long voteCount = votes.stream()
-                    .filter(v -> v.getCandidate().getId().equals(c.getId()))
-                    .count();
-            double percentage = totalVotes == 0 ? 0 : ((double) voteCount / totalVotes) * 100;
-
-            return CandidateResultDTO.builder()
-                    .candidateId(c.getId())
-                    .candidateName(c.getName())
-                    .candidatePhoto(c.getPhoto())      // ✅ include candidate photo
-                    .partyName(c.getParty().getName())
-                    .partyLogo(c.getParty().getLogo()) // ✅ include party logo
-                    .voteCount(voteCount)
-                    .percentage(percentage)
-                    .build();
-        }).sorted((a, b) -> Long.compare(b.getVoteCount(), a.getVoteCount()))
-          .collect(Collectors.toList());
-
-        CandidateResultDTO winner = candidateResults.isEmpty() ? null : candidateResults.get(0);
-
-        return ElectionResultDTO.builder()
-                .electionId(election.getId())
-                .title(election.getTitle())
-                .startDate(election.getStartDate())
-                .endDate(election.getEndDate())
-                .totalVotes(totalVotes)
-                .candidateResults(candidateResults)
-                .winner(winner)
-                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .body(snapshot.getPayload());
     }
 }
@@ -11,9 +11,9 @@ public class AdminCandidateResultDTO {
     private Long candidateId;
     private String candidateName;
 
-    private byte[] candidatePhoto;  
+    private String candidatePhotoUrl;
     private String partyName;
-    private byte[] partyLogo;
+    private String partyLogoUrl;
 
     private long voteCount;
     private double percentage;
@@ -0,0 +1,17 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheRegionStatsDTO {
+    private String region;     // parties, candidates, elections, query.* or Hibernate's timestamps region
+    private long hits;         // counted since startup
+    private long misses;
+    private long puts;
+    private long entries;      // currently held, -1 if the provider doesn't report it
+    private double hitRatio;   // hits / (hits + misses), 0 before the first lookup
+}
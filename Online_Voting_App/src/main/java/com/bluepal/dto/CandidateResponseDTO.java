@@ -1,5 +1,6 @@
 package com.bluepal.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 @Getter
@@ -7,10 +8,12 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class CandidateResponseDTO {
     private Long id;
     private String name;
-    private byte[] photo;
+    private String photoUrl; // versioned /api/media URL, null if no photo
+    private String photoStatus; // PENDING, READY or FAILED (renditions)
     private String bio;
     private PartyResponseDTO party;
     private ElectionResponseDTO election;
@@ -11,9 +11,9 @@ public class CandidateResultDTO {
     private Long candidateId;
     private String candidateName;
 
-    private byte[] candidatePhoto;  // candidate image in bytes
+    private String candidatePhotoUrl;  // versioned /api/media URL
     private String partyName;
-    private byte[] partyLogo;       // party logo in bytes
+    private String partyLogoUrl;       // versioned /api/media URL
 
     private long voteCount;
     private double percentage; // % of total votes
@@ -0,0 +1,12 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidateVoteCountDTO {
+    private Long candidateId;
+    private Long voteCount;
+}
@@ -0,0 +1,13 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ElectionCandidateVoteCountDTO {
+    private Long electionId;
+    private Long candidateId;
+    private Long voteCount;
+}
@@ -0,0 +1,76 @@
+package com.bluepal.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The ?fields= and ?expand= parameters of a read endpoint.
+ * expand names the nested objects to load and return, dotted for deeper levels (candidates.party);
+ * without it the endpoint's usual nested objects are returned, and expand= (empty) returns none.
+ * fields names the attributes to return (id is always returned), dotted for nested objects
+ * (name,party.name); without it every attribute is returned. Unrequested attributes are left out of the JSON.
+ */
+public final class FieldSelection {
+
+    private final Set<String> fields;  // null = every field
+    private final Set<String> expand;  // closed under prefixes: candidates.party implies candidates
+
+    private FieldSelection(Set<String> fields, Set<String> expand) {
+        this.fields = fields;
+        this.expand = expand;
+    }
+
+    // allowed: every expand path the endpoint supports; defaults: what it expands without ?expand=
+    public static FieldSelection parse(String fields, String expand, Set<String> allowed, Set<String> defaults) {
+        Set<String> paths = expand == null ? defaults : split(expand);
+        Set<String> closed = new LinkedHashSet<>();
+        for (String path : paths) {
+            if (!allowed.contains(path)) {
+                throw new RuntimeException("Cannot expand '" + path + "', expected one of " + allowed);
+            }
+            for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+                closed.add(path.substring(0, dot));
+            }
+            closed.add(path);
+        }
+        return new FieldSelection(fields == null ? null : split(fields), Collections.unmodifiableSet(closed));
+    }
+
+    public boolean includes(String field) {
+        return fields == null || "id".equals(field) || fields.contains(field);
+    }
+
+    public boolean expands(String path) {
+        return expand.contains(path);
+    }
+
+    // Every expanded path, for the fetch plan
+    public Set<String> expandPaths() {
+        return expand;
+    }
+
+    // The selection seen from a nested object; its attributes are all returned unless fields names some
+    public FieldSelection nested(String name) {
+        String prefix = name + ".";
+        Set<String> nestedFields = fields == null ? null : strip(fields, prefix);
+        return new FieldSelection(nestedFields == null || nestedFields.isEmpty() ? null : nestedFields,
+                strip(expand, prefix));
+    }
+
+    private static Set<String> strip(Set<String> values, String prefix) {
+        return values.stream()
+                .filter(value -> value.startsWith(prefix))
+                .map(value -> value.substring(prefix.length()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Set<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,15 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaMigrationDTO {
+    private int candidatePhotos;  // LOBs moved to the filesystem media store
+    private int partyLogos;
+    private int renditions;
+    private long bytesMoved;
+}
@@ -1,5 +1,6 @@
 package com.bluepal.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import java.util.List;
 
@@ -8,10 +9,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PartyResponseDTO {
     private Long id;
     private String name;
     private String description;
-    private byte[] logo;
+    private String logoUrl; // versioned /api/media URL, null if no logo
+    private String logoStatus; // PENDING, READY or FAILED (renditions)
     private List<CandidateResponseDTO> candidates;
 }
@@ -0,0 +1,18 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultSnapshotDTO {
+    private Long electionId;
+    private String etag;
+    private long totalVotes;
+    private int sizeBytes;
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,21 @@
+package com.bluepal.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TallyReconciliationDTO {
+    private Long electionId;
+    private boolean tracked;
+    private boolean consistent;
+    private boolean repaired;                // live counters were re-seeded from the votes table
+    private boolean journalDrained;          // false if journaled votes were still being applied
+
+    private Map<Long, Long> liveCounts;      // candidateId -> in-memory count
+    private Map<Long, Long> databaseCounts;  // candidateId -> count from votes table
+}
@@ -2,9 +2,15 @@ package com.bluepal.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "candidates")
+// Second-level cached; the lazy photo bytes stay out of the cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "candidates", includeLazy = false)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,9 +25,20 @@ public class Candidate {
     @Column(nullable = false)
     private String name;
 
+    // Loaded only when read (bytecode-enhanced), so entity queries never pull the image
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private byte[] photo;
 
+    // SHA-256 of photo; versions the photo URL handed out in DTOs
+    @Column(length = 64)
+    private String photoHash;
+
+    // Progress of the thumbnail/ballot/full renditions of photo
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus photoStatus;
+
     private String bio; // optional
 
     @ManyToOne
@@ -31,4 +48,13 @@ public class Candidate {
     @ManyToOne
     @JoinColumn(name = "election_id", nullable = false)
     private Election election;
+
+    // Version stamp for conditional GETs; bulk updates of the image columns set it too
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
 }
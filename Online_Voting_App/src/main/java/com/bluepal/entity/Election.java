@@ -2,11 +2,15 @@ package com.bluepal.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "elections")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "elections")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,35 @@
+package com.bluepal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Final results of a completed election, stored as the exact JSON served to voters
+@Entity
+@Table(name = "election_result_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ElectionResultSnapshot {
+
+    @Id
+    private Long electionId;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    private long totalVotes;
+
+    // Layout of the payload; older layouts are recomputed on load
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int format;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,44 @@
+package com.bluepal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// One resized copy of an uploaded image, keyed by the SHA-256 of the original so identical uploads share renditions
+@Entity
+@Table(name = "image_renditions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"source_hash", "size"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageSize size;
+
+    @Column(nullable = false, length = 32)
+    private String contentType;
+
+    private int width;
+
+    private int height;
+
+    // SHA-256 of data; names the file when the filesystem media store holds it
+    @Column(length = 64)
+    private String dataHash;
+
+    // Null when the bytes are in the filesystem media store
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+}
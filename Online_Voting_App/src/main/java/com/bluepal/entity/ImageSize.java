@@ -0,0 +1,18 @@
+package com.bluepal.entity;
+
+// Renditions generated for every uploaded image, by longest side in pixels
+public enum ImageSize {
+    THUMBNAIL(96),   // Admin tables and results lists
+    BALLOT(320),     // Candidate cards on the ballot
+    FULL(1280);      // Detail views
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+}
@@ -0,0 +1,7 @@
+package com.bluepal.entity;
+
+public enum ImageStatus {
+    PENDING,   // Uploaded, renditions not generated yet (the original is served meanwhile)
+    READY,     // Thumbnail, ballot and full renditions available
+    FAILED     // Could not be decoded; only the original is served
+}
@@ -2,10 +2,16 @@ package com.bluepal.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "parties")
+// Second-level cached; the lazy logo bytes stay out of the cache
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parties", includeLazy = false)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,11 +26,31 @@ public class Party {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Loaded only when read (bytecode-enhanced), so entity queries never pull the image
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     private byte[] logo;
 
+    // SHA-256 of logo; versions the logo URL handed out in DTOs
+    @Column(length = 64)
+    private String logoHash;
+
+    // Progress of the thumbnail/ballot/full renditions of logo
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus logoStatus;
+
     private String description; // optional
 
     @OneToMany(mappedBy = "party", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Candidate> candidates;
+
+    // Version stamp for conditional GETs; bulk updates of the image columns set it too
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
 }
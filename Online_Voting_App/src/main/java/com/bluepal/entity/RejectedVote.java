@@ -0,0 +1,42 @@
+package com.bluepal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// A journaled vote the votes table refused when it was applied (voting.ingest.mode=journal).
+// Kept without foreign keys: the candidate, election or voter it names may no longer exist.
+// Unique like votes, so a batch retried after a failure doesn't record a rejection twice.
+@Entity
+@Table(name = "rejected_votes", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"voter_id", "election_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedVote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long voterId;
+
+    @Column(nullable = false)
+    private Long candidateId;
+
+    @Column(nullable = false)
+    private Long electionId;
+
+    @Column(nullable = false)
+    private LocalDateTime castAt;
+
+    @Column(length = 500)
+    private String reason;
+
+    @Column(nullable = false)
+    private LocalDateTime rejectedAt;
+}
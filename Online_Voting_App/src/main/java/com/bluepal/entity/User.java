@@ -31,4 +31,8 @@ public class User {
     private String voterId;
     
     private String email;
+
+    // Bumped to invalidate every token issued before (see TokenVersionRegistry)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion;
 }
@@ -0,0 +1,13 @@
+package com.bluepal.exception;
+
+// Thrown when a bounded resource is saturated; the client should retry shortly (HTTP 503)
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
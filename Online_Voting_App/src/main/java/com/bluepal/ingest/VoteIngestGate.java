@@ -0,0 +1,60 @@
+package com.bluepal.ingest;
+
+import com.bluepal.exception.ServiceBusyException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps journaled votes applicable. A vote is acknowledged once journaled but inserted later, so a
+ * candidate, party, election or voter deleted in between would make the insert fail on a foreign key.
+ * Deletes of those rows therefore run {@link #exclusive}: new votes wait, every acknowledged vote is
+ * applied first, and the delete then meets the same foreign keys it would without the journal.
+ * Votes are validated and appended inside {@link #admit}, so none is validated before a delete and
+ * appended after it. Without the journal both simply run the given work.
+ */
+@Component
+@RequiredArgsConstructor
+public class VoteIngestGate {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ObjectProvider<VoteJournal> voteJournal;
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+
+    // ------------------ Vote path: validate and append ------------------
+    public <T> T admit(Supplier<T> validateAndAppend) {
+        if (voteJournal.getIfAvailable() == null) {
+            return validateAndAppend.get();
+        }
+        gate.readLock().lock();
+        try {
+            return validateAndAppend.get();
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    // ------------------ Deletes of rows votes reference ------------------
+    public void exclusive(Runnable delete) {
+        VoteJournal journal = voteJournal.getIfAvailable();
+        if (journal == null) {
+            delete.run();
+            return;
+        }
+        gate.writeLock().lock();
+        try {
+            if (!journal.awaitApplied(DRAIN_TIMEOUT)) {
+                throw new ServiceBusyException("Votes are still being recorded, please retry");
+            }
+            delete.run();
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+}
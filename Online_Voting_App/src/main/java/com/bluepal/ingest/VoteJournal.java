@@ -0,0 +1,386 @@
+package com.bluepal.ingest;
+
+import com.bluepal.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind vote ingestion (voting.ingest.mode=journal).
+ * Votes are appended to a local journal and fsynced in groups before the voter is acknowledged;
+ * a background writer drains the journal into the votes table with JDBC batch inserts and records
+ * how far it got in a checkpoint file. Anything past the checkpoint is replayed on startup, and the
+ * insert ignores rows already present, so replay is idempotent.
+ * Votes are validated before they are acknowledged and VoteIngestGate keeps deletes from invalidating
+ * them afterwards; a row the table still refuses is moved to rejected_votes (and counted in
+ * {@code voting.ingest.rejected}) rather than dropped, before the checkpoint passes it; the
+ * VoteRejectionListeners then take the vote back out of the live tally and release the voter's claim.
+ * Duplicate votes are rejected earlier by VotedRegistry, so this mode assumes a single application node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "voting.ingest.mode", havingValue = "journal")
+public class VoteJournal {
+
+    // voterId, candidateId, electionId, castAt (epoch millis), CRC32
+    private static final int RECORD_SIZE = 4 * Long.BYTES + Integer.BYTES;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO votes (voter_id, candidate_id, election_id, cast_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE id = id";
+
+    private static final String REJECT_SQL =
+            "INSERT INTO rejected_votes (voter_id, candidate_id, election_id, cast_at, reason, rejected_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int groupCommitMax;
+    private final int batchSize;
+    private final long drainIntervalNanos;
+    private final Counter rejected;
+    private final List<VoteRejectionListener> rejectionListeners;
+
+    private final BlockingQueue<PendingAppend> queue;
+    private final ReentrantLock fileLock = new ReentrantLock();  // appends vs. truncation
+
+    private FileChannel journal;
+    private FileChannel checkpoint;
+    private volatile long durableEnd;   // journal bytes fsynced and acknowledged
+    private volatile long appliedOffset; // journal bytes written to the votes table
+    private volatile boolean running;
+    private volatile long journaledCount; // records acknowledged since startup
+    private volatile long appliedCount;   // of those, records written to the votes table
+    private Thread flusher;
+    private Thread applier;
+
+    public VoteJournal(JdbcTemplate jdbcTemplate,
+                       @Value("${voting.ingest.journal-dir:./data/vote-journal}") String directory,
+                       @Value("${voting.ingest.queue-capacity:20000}") int queueCapacity,
+                       @Value("${voting.ingest.group-commit-max:1024}") int groupCommitMax,
+                       @Value("${voting.ingest.batch-size:1000}") int batchSize,
+                       @Value("${voting.ingest.drain-interval-ms:50}") long drainIntervalMs,
+                       MeterRegistry meterRegistry,
+                       List<VoteRejectionListener> rejectionListeners) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rejectionListeners = rejectionListeners;
+        this.directory = Paths.get(directory);
+        this.groupCommitMax = groupCommitMax;
+        this.batchSize = batchSize;
+        this.drainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(drainIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.rejected = Counter.builder("voting.ingest.rejected")
+                .description("Journaled votes the votes table refused, kept in rejected_votes")
+                .register(meterRegistry);
+    }
+
+    // ------------------ Append (completes once the entry is fsynced) ------------------
+    public CompletableFuture<Void> append(Long voterId, Long candidateId, Long electionId, LocalDateTime castAt) {
+        PendingAppend pending = new PendingAppend(encode(voterId, candidateId, electionId, castAt));
+        if (!queue.offer(pending)) {
+            throw new ServiceBusyException("Vote service is busy, please retry");
+        }
+        return pending.future;
+    }
+
+    // ------------------ Startup: recover, replay, start threads ------------------
+    // Before the other startup listeners, so tallies seeded at startup already see the replayed votes
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        journal = FileChannel.open(directory.resolve("votes.journal"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpoint = FileChannel.open(directory.resolve("votes.checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        appliedOffset = readCheckpoint();
+        durableEnd = recoverEnd(appliedOffset);
+        if (appliedOffset > durableEnd) {
+            appliedOffset = 0; // journal was truncated after the checkpoint was written; replay all
+        }
+        log.info("Vote journal: replaying {} entries", (durableEnd - appliedOffset) / RECORD_SIZE);
+        while (appliedOffset < durableEnd) {
+            applyNextBatch();
+        }
+        appliedCount = 0; // awaitApplied counts only what is acknowledged from here on
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "vote-journal-flusher");
+        applier = new Thread(this::applyLoop, "vote-journal-applier");
+        flusher.start();
+        applier.start();
+    }
+
+    // Waits until everything acknowledged so far is in the votes table (used before freezing results)
+    public boolean awaitApplied(Duration timeout) {
+        long target = journaledCount;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedCount < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(applier);
+            LockSupport.parkNanos(drainIntervalNanos);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.join();
+        LockSupport.unpark(applier);
+        applier.join();
+        journal.close();
+        checkpoint.close();
+    }
+
+    // ------------------ Group commit ------------------
+    private void flushLoop() {
+        List<PendingAppend> group = new ArrayList<>(groupCommitMax);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, groupCommitMax - 1);
+                writeGroup(group);
+                group.forEach(p -> p.future.complete(null));
+                LockSupport.unpark(applier);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Vote journal write failed", e);
+                group.forEach(p -> p.future.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(group.size() * RECORD_SIZE);
+        group.forEach(p -> buffer.put(p.record));
+        buffer.flip();
+
+        fileLock.lock();
+        try {
+            long position = durableEnd;
+            while (buffer.hasRemaining()) {
+                position += journal.write(buffer, position);
+            }
+            journal.force(false);
+            durableEnd = position;
+            journaledCount += group.size();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    // ------------------ Background drain into the votes table ------------------
+    private void applyLoop() {
+        while (running || appliedOffset < durableEnd) {
+            try {
+                if (appliedOffset < durableEnd) {
+                    applyNextBatch();
+                } else {
+                    compact();
+                    LockSupport.parkNanos(drainIntervalNanos);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    log.warn("Vote journal stopping with entries left for replay on next start", e);
+                    return;
+                }
+                log.error("Vote journal drain failed, will retry", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void applyNextBatch() throws IOException {
+        long end = Math.min(durableEnd, appliedOffset + (long) batchSize * RECORD_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - appliedOffset));
+        long position = appliedOffset;
+        while (buffer.hasRemaining()) {
+            position += journal.read(buffer, position);
+        }
+        buffer.flip();
+
+        List<Object[]> rows = new ArrayList<>();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            rows.add(decode(buffer));
+        }
+
+        List<Object[]> refused = new ArrayList<>();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (DataIntegrityViolationException e) {
+            // One bad row must not block the journal: retry row by row, setting aside the ones refused
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row);
+                } catch (DataIntegrityViolationException rowError) {
+                    reject(row, rowError.getMostSpecificCause().getMessage());
+                    refused.add(row);
+                }
+            }
+        }
+
+        appliedOffset = end;
+        writeCheckpoint(end);
+        // Only now: a batch that is retried must not take the same vote back twice. Counted as applied
+        // after that, so a tally seeded once awaitApplied returns is never decremented for these votes.
+        refused.forEach(this::notifyRejected);
+        appliedCount += rows.size();
+    }
+
+    // Kept in rejected_votes before the checkpoint moves past it; if this insert fails too, the batch is retried
+    private void reject(Object[] row, String reason) {
+        log.error("Journaled vote voter={} candidate={} election={} refused by the votes table, moved to rejected_votes: {}",
+                row[0], row[1], row[2], reason);
+        String trimmed = reason == null || reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH);
+        jdbcTemplate.update(REJECT_SQL, row[0], row[1], row[2], row[3], trimmed, Timestamp.valueOf(LocalDateTime.now()));
+        rejected.increment();
+    }
+
+    // The voter was acknowledged and the vote counted; a failing listener must not stall the journal
+    private void notifyRejected(Object[] row) {
+        for (VoteRejectionListener listener : rejectionListeners) {
+            try {
+                listener.voteRejected((Long) row[0], (Long) row[1], (Long) row[2]);
+            } catch (RuntimeException e) {
+                log.error("Rejected vote voter={} election={} could not be taken back", row[0], row[2], e);
+            }
+        }
+    }
+
+    // Once everything is applied, reset the journal so it doesn't grow forever
+    private void compact() throws IOException {
+        if (appliedOffset == 0 || !fileLock.tryLock()) {
+            return;
+        }
+        try {
+            if (appliedOffset == durableEnd) {
+                writeCheckpoint(0); // checkpoint first: a crash before truncate just replays (idempotently)
+                journal.truncate(0);
+                durableEnd = 0;
+                appliedOffset = 0;
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    // ------------------ Recovery helpers ------------------
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (checkpoint.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return buffer.flip().getLong();
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(offset).flip();
+        checkpoint.write(buffer, 0);
+        checkpoint.force(false);
+    }
+
+    // Scans forward from the checkpoint and cuts off a torn or corrupt tail
+    private long recoverEnd(long from) throws IOException {
+        long size = journal.size();
+        long position = Math.min(from, size - size % RECORD_SIZE);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        while (position + RECORD_SIZE <= size) {
+            record.clear();
+            journal.read(record, position);
+            if (!isValid(record.array())) {
+                break;
+            }
+            position += RECORD_SIZE;
+        }
+        if (position < size) {
+            log.warn("Vote journal: discarding {} bytes of incomplete tail", size - position);
+            journal.truncate(position);
+        }
+        return position;
+    }
+
+    // ------------------ Record format ------------------
+    private static byte[] encode(Long voterId, Long candidateId, Long electionId, LocalDateTime castAt) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(voterId)
+                .putLong(candidateId)
+                .putLong(electionId)
+                .putLong(castAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static Object[] decode(ByteBuffer buffer) {
+        long voterId = buffer.getLong();
+        long candidateId = buffer.getLong();
+        long electionId = buffer.getLong();
+        LocalDateTime castAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault());
+        buffer.getInt(); // CRC already verified on recovery / written by us
+        return new Object[] { voterId, candidateId, electionId, Timestamp.valueOf(castAt) };
+    }
+
+    private static boolean isValid(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, RECORD_SIZE - Integer.BYTES);
+        return ByteBuffer.wrap(record, RECORD_SIZE - Integer.BYTES, Integer.BYTES).getInt() == (int) crc.getValue();
+    }
+
+    private static class PendingAppend {
+        private final byte[] record;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingAppend(byte[] record) {
+            this.record = record;
+        }
+    }
+}
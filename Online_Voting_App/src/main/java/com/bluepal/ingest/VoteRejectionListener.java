@@ -0,0 +1,11 @@
+package com.bluepal.ingest;
+
+/**
+ * Told when VoteJournal moves an acknowledged vote to rejected_votes, so what counted the vote as cast
+ * (the live tally, the voter's claim) can take it back. Called on the journal's applier thread, once per
+ * vote, after the batch holding it is checkpointed.
+ */
+public interface VoteRejectionListener {
+
+    void voteRejected(Long voterUserId, Long candidateId, Long electionId);
+}
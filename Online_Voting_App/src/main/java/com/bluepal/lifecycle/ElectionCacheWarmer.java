@@ -0,0 +1,39 @@
+package com.bluepal.lifecycle;
+
+import com.bluepal.cache.EligibilityIndex;
+import com.bluepal.cache.VoteTallyRegistry;
+import com.bluepal.cache.VotedRegistry;
+import com.bluepal.entity.Election;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Loads the vote-path caches when an election opens and drops them once it closes
+@Component
+@RequiredArgsConstructor
+public class ElectionCacheWarmer implements ElectionLifecycleListener {
+
+    private final VoteTallyRegistry tallyRegistry;
+    private final VotedRegistry votedRegistry;
+    private final EligibilityIndex eligibilityIndex;
+
+    @Override
+    public void electionOpened(Election election) {
+        tallyRegistry.track(election.getId());
+        votedRegistry.warm(election.getId());
+        eligibilityIndex.preload(election.getId());
+    }
+
+    @Override
+    public void electionClosed(Election election) {
+        tallyRegistry.untrack(election.getId());
+        votedRegistry.evict(election.getId());
+        eligibilityIndex.evict(election.getId());
+    }
+
+    @Override
+    public void electionDeleted(Long electionId) {
+        tallyRegistry.untrack(electionId);
+        votedRegistry.evict(electionId);
+        eligibilityIndex.evict(electionId);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bluepal.lifecycle;
+
+import com.bluepal.entity.Election;
+
+/**
+ * Hooks fired by ElectionLifecycleScheduler on every node when an election opens or closes
+ * (automatically at its start/end date, or through an admin status change).
+ */
+public interface ElectionLifecycleListener {
+
+    // Election became ONGOING (also fired on startup for elections already ONGOING)
+    default void electionOpened(Election election) {
+    }
+
+    // Election left ONGOING (COMPLETED or CANCELLED)
+    default void electionClosed(Election election) {
+    }
+
+    default void electionDeleted(Long electionId) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.bluepal.lifecycle;
+
+import com.bluepal.cache.ActiveElectionIndex;
+import com.bluepal.entity.Election;
+import com.bluepal.entity.ElectionStatus;
+import com.bluepal.repository.ElectionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Moves elections NOT_STARTED -> ONGOING -> COMPLETED at their start and end dates.
+ * Each election has one pending timer for its next transition (no polling of the elections table);
+ * timers are set on startup and re-set whenever an admin creates or edits an election.
+ */
+@Slf4j
+@Component
+public class ElectionLifecycleScheduler {
+
+    private final ElectionRepository electionRepo;
+    private final ActiveElectionIndex activeElections;
+    private final List<ElectionLifecycleListener> listeners;
+
+    private final ThreadPoolTaskScheduler timers = new ThreadPoolTaskScheduler();
+    private final Map<Long, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public ElectionLifecycleScheduler(ElectionRepository electionRepo,
+                                      ActiveElectionIndex activeElections,
+                                      List<ElectionLifecycleListener> listeners) {
+        this.electionRepo = electionRepo;
+        this.activeElections = activeElections;
+        this.listeners = listeners;
+        timers.setPoolSize(1);
+        timers.setThreadNamePrefix("election-lifecycle-");
+        timers.setRemoveOnCancelPolicy(true);
+        timers.initialize();
+    }
+
+    // ------------------ Startup: open running elections, set timers for the rest ------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Election election : electionRepo.findByStatusIn(EnumSet.of(ElectionStatus.NOT_STARTED, ElectionStatus.ONGOING))) {
+            if (election.getStatus() == ElectionStatus.ONGOING) {
+                opened(election);
+            }
+            schedule(election);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        timers.shutdown();
+    }
+
+    // ------------------ Admin changes ------------------
+    public void electionSaved(ElectionStatus previousStatus, Election election) {
+        if (previousStatus != ElectionStatus.ONGOING && election.getStatus() == ElectionStatus.ONGOING) {
+            opened(election);
+        } else if (previousStatus == ElectionStatus.ONGOING && election.getStatus() != ElectionStatus.ONGOING) {
+            closed(election);
+        } else if (election.getStatus() == ElectionStatus.ONGOING) {
+            activeElections.put(election); // dates or title changed
+        }
+        schedule(election);
+    }
+
+    public void electionDeleted(Long electionId) {
+        cancel(electionId);
+        activeElections.remove(electionId);
+        listeners.forEach(l -> l.electionDeleted(electionId));
+    }
+
+    // ------------------ Timers ------------------
+    private void schedule(Election election) {
+        cancel(election.getId());
+        LocalDateTime at = switch (election.getStatus()) {
+            case NOT_STARTED -> election.getStartDate();
+            case ONGOING -> election.getEndDate();
+            default -> null;
+        };
+        if (at == null) {
+            return;
+        }
+        Long electionId = election.getId();
+        pending.put(electionId, timers.schedule(() -> advance(electionId),
+                at.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    private void cancel(Long electionId) {
+        ScheduledFuture<?> timer = pending.remove(electionId);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    // Applies whichever transition is due; overdue elections catch up in one go
+    private void advance(Long electionId) {
+        pending.remove(electionId);
+        try {
+            Election election = electionRepo.findById(electionId).orElse(null);
+            if (election == null) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+
+            if (election.getStatus() == ElectionStatus.NOT_STARTED && !now.isBefore(election.getStartDate())) {
+                if (!transition(election, ElectionStatus.NOT_STARTED, ElectionStatus.ONGOING, now)) {
+                    rescheduleFromDatabase(electionId);
+                    return;
+                }
+                opened(election);
+            }
+            if (election.getStatus() == ElectionStatus.ONGOING && !now.isBefore(election.getEndDate())) {
+                if (!transition(election, ElectionStatus.ONGOING, ElectionStatus.COMPLETED, now)) {
+                    rescheduleFromDatabase(electionId);
+                    return;
+                }
+                closed(election);
+            }
+            schedule(election);
+        } catch (RuntimeException e) {
+            log.error("Election {} lifecycle transition failed", electionId, e);
+        }
+    }
+
+    // Conditional update, so with several nodes only one writes; every node still runs its hooks.
+    // When the update changed nothing the row is re-read: another node making the same transition still
+    // counts, but an election an admin moved elsewhere (or deleted) meanwhile is not transitioned (false).
+    private boolean transition(Election election, ElectionStatus from, ElectionStatus to, LocalDateTime now) {
+        if (electionRepo.updateStatus(election.getId(), from, to, now) == 0) {
+            ElectionStatus current = electionRepo.findById(election.getId()).map(Election::getStatus).orElse(null);
+            if (current != to) {
+                log.info("Election {} not moved from {} to {}: it is {}", election.getId(), from, to,
+                        current != null ? current : "deleted");
+                return false;
+            }
+        }
+        election.setStatus(to);
+        election.setUpdatedAt(now);
+        log.info("Election {} is now {}", election.getId(), to);
+        return true;
+    }
+
+    // After a transition lost to another change, follow whatever the row says now
+    private void rescheduleFromDatabase(Long electionId) {
+        electionRepo.findById(electionId).ifPresent(this::schedule);
+    }
+
+    private void opened(Election election) {
+        activeElections.put(election);
+        for (ElectionLifecycleListener listener : listeners) {
+            try {
+                listener.electionOpened(election);
+            } catch (RuntimeException e) {
+                log.error("Election {} open hook {} failed", election.getId(), listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void closed(Election election) {
+        activeElections.remove(election.getId());
+        for (ElectionLifecycleListener listener : listeners) {
+            try {
+                listener.electionClosed(election);
+            } catch (RuntimeException e) {
+                log.error("Election {} close hook {} failed", election.getId(), listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.bluepal.repository;
 
 import com.bluepal.entity.AllowedVoter;
 import com.bluepal.entity.Election;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,12 @@ public interface AllowedVoterRepository extends JpaRepository<AllowedVoter, Long
     
     List<AllowedVoter> findByVoterId(String voterId);
 
+    // ------------------ Eligibility index loading ------------------
+    // User ids of registered voters on the roll, keyset-paged by user id
+    @Query("SELECT u.id FROM AllowedVoter a, User u WHERE a.election.id = :electionId "
+            + "AND u.voterId = a.voterId AND u.id > :afterUserId ORDER BY u.id")
+    List<Long> findRegisteredUserIds(@Param("electionId") Long electionId,
+                                     @Param("afterUserId") Long afterUserId,
+                                     Pageable pageable);
+
 }
@@ -2,13 +2,71 @@ package com.bluepal.repository;
 
 import com.bluepal.entity.Candidate;
 import com.bluepal.entity.Election;
+import com.bluepal.entity.ImageStatus;
 import com.bluepal.entity.Party;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CandidateRepository extends JpaRepository<Candidate, Long> {
 
+    // Query cache: candidate ids per election/party, invalidated whenever the candidates table changes
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.candidates")})
     List<Candidate> findByElection(Election election);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.candidates")})
     List<Candidate> findByParty(Party party);
+
+    // Not query-cached: ActiveElectionIndex reloads these right after a candidate change
+    @Query("SELECT c.id FROM Candidate c WHERE c.election.id = :electionId")
+    List<Long> findIdsByElectionId(@Param("electionId") Long electionId);
+
+    // Candidates of several elections with their parties, in one query
+    @Query("SELECT c FROM Candidate c JOIN FETCH c.party JOIN FETCH c.election WHERE c.election.id IN :electionIds ORDER BY c.id")
+    List<Candidate> findWithPartyByElectionIds(@Param("electionIds") Collection<Long> electionIds);
+
+    // ------------------ Photo access for /api/media (no entity load) ------------------
+    @Query("SELECT c.photoHash FROM Candidate c WHERE c.id = :id")
+    Optional<String> findPhotoHashById(@Param("id") Long id);
+
+    @Query("SELECT c.photo FROM Candidate c WHERE c.id = :id")
+    Optional<byte[]> findPhotoById(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM Candidate c WHERE c.photo IS NOT NULL")
+    List<Long> findIdsWithPhotoInDatabase();
+
+    // After the photo was copied to the filesystem media store; skipped if a new photo was uploaded meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE Candidate c SET c.photo = NULL, c.photoHash = :hash, c.updatedAt = :now WHERE c.id = :id AND (c.photoHash = :hash OR c.photoHash IS NULL)")
+    int clearPhoto(@Param("id") Long id, @Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Query("SELECT c.id FROM Candidate c WHERE c.photo IS NOT NULL AND c.photoHash IS NULL")
+    List<Long> findIdsWithUnhashedPhoto();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Candidate c SET c.photoHash = :hash, c.updatedAt = :now WHERE c.id = :id")
+    int updatePhotoHash(@Param("id") Long id, @Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // ------------------ Rendition status (only if the photo wasn't replaced meanwhile) ------------------
+    @Query("SELECT c.id FROM Candidate c WHERE c.photoHash IS NOT NULL AND (c.photoStatus IS NULL OR c.photoStatus = :pending)")
+    List<Long> findIdsWithPendingPhoto(@Param("pending") ImageStatus pending);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Candidate c SET c.photoStatus = :status, c.updatedAt = :now WHERE c.id = :id AND c.photoHash = :hash")
+    int updatePhotoStatus(@Param("id") Long id, @Param("hash") String hash, @Param("status") ImageStatus status, @Param("now") LocalDateTime now);
 }
@@ -2,14 +2,43 @@ package com.bluepal.repository;
 
 import com.bluepal.entity.Election;
 import com.bluepal.entity.ElectionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ElectionRepository extends JpaRepository<Election, Long> {
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.elections")})
     List<Election> findByStatus(ElectionStatus status);
 
+    Page<Election> findByStatus(ElectionStatus status, Pageable pageable);
+
     List<Election> findByStartDateBeforeAndEndDateAfter(java.time.LocalDateTime now1, java.time.LocalDateTime now2);
 
     List<Election> findByTitleContainingIgnoreCase(String title);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.elections")})
+    List<Election> findByStatusIn(Collection<ElectionStatus> statuses);
+
+    // ------------------ Lifecycle transition (only if still in the expected status) ------------------
+    @Transactional
+    @Modifying
+    @Query("UPDATE Election e SET e.status = :to, e.updatedAt = :now WHERE e.id = :id AND e.status = :from")
+    int updateStatus(@Param("id") Long id,
+                     @Param("from") ElectionStatus from,
+                     @Param("to") ElectionStatus to,
+                     @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,7 @@
+package com.bluepal.repository;
+
+import com.bluepal.entity.ElectionResultSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ElectionResultSnapshotRepository extends JpaRepository<ElectionResultSnapshot, Long> {
+}
@@ -0,0 +1,149 @@
+package com.bluepal.repository;
+
+import com.bluepal.dto.FieldSelection;
+import com.bluepal.entity.Candidate;
+import com.bluepal.entity.Election;
+import com.bluepal.entity.ElectionStatus;
+import com.bluepal.entity.Party;
+import com.bluepal.entity.Vote;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads for the ?fields=/?expand= endpoints, loaded with a fetch graph built from the selection.
+ * Associations in the graph are joined into the one query; associations outside it are left as
+ * unloaded proxies (a fetch graph overrides the mappings' EAGER), so nothing unrequested is queried.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FetchPlanRepository {
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+
+    // ------------------ Elections ------------------
+    // A page is cut from election ids first and then loaded with its graph: paging a query that joins
+    // the candidates collection would make Hibernate fetch every row and page in memory.
+    // At most three queries (ids, graph, count) however many elections and candidates there are.
+    public Page<Election> findElections(ElectionStatus status, Pageable pageable, FieldSelection selection) {
+        String where = status == null ? "" : " WHERE e.status = :status";
+        Map<String, Object> params = status == null ? Map.of() : Map.of("status", status);
+        String orderBy = orderBy("e", pageable.getSort());
+        if (pageable.isUnpaged()) {
+            List<Election> elections = list(Election.class, "SELECT e FROM Election e" + where + orderBy, params, selection);
+            return new PageImpl<>(elections, pageable, elections.size());
+        }
+
+        TypedQuery<Long> idQuery = entityManager.createQuery("SELECT e.id FROM Election e" + where + orderBy, Long.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        params.forEach(idQuery::setParameter);
+        List<Long> ids = idQuery.getResultList();
+
+        TypedQuery<Long> countQuery = entityManager.createQuery("SELECT COUNT(e) FROM Election e" + where, Long.class);
+        params.forEach(countQuery::setParameter);
+        long total = countQuery.getSingleResult();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        Map<Long, Election> byId = new HashMap<>();
+        list(Election.class, "SELECT e FROM Election e WHERE e.id IN :ids", Map.of("ids", ids), selection)
+                .forEach(election -> byId.put(election.getId(), election));
+        return new PageImpl<>(ids.stream().map(byId::get).toList(), pageable, total);
+    }
+
+    public Optional<Election> findElection(Long id, FieldSelection selection) {
+        return single(Election.class, "SELECT e FROM Election e WHERE e.id = :id", id, selection);
+    }
+
+    // ------------------ Candidates (electionId / partyId narrow the list when given) ------------------
+    public List<Candidate> findCandidates(Long electionId, Long partyId, FieldSelection selection) {
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Candidate c WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        if (electionId != null) {
+            jpql.append(" AND c.election.id = :electionId");
+            params.put("electionId", electionId);
+        }
+        if (partyId != null) {
+            jpql.append(" AND c.party.id = :partyId");
+            params.put("partyId", partyId);
+        }
+        return list(Candidate.class, jpql.append(" ORDER BY c.id").toString(), params, selection);
+    }
+
+    public Optional<Candidate> findCandidate(Long id, FieldSelection selection) {
+        return single(Candidate.class, "SELECT c FROM Candidate c WHERE c.id = :id", id, selection);
+    }
+
+    // ------------------ Parties ------------------
+    public List<Party> findParties(FieldSelection selection) {
+        return list(Party.class, "SELECT p FROM Party p ORDER BY p.id", Map.of(), selection);
+    }
+
+    public Optional<Party> findParty(Long id, FieldSelection selection) {
+        return single(Party.class, "SELECT p FROM Party p WHERE p.id = :id", id, selection);
+    }
+
+    // ------------------ Votes ------------------
+    public List<Vote> findVotes(FieldSelection selection) {
+        return list(Vote.class, "SELECT v FROM Vote v ORDER BY v.id", Map.of(), selection);
+    }
+
+    public Optional<Vote> findVote(Long id, FieldSelection selection) {
+        return single(Vote.class, "SELECT v FROM Vote v WHERE v.id = :id", id, selection);
+    }
+
+    // Sort properties are checked by the caller; id is always the last key so pages never overlap
+    private static String orderBy(String alias, Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        for (Sort.Order order : sort) {
+            if (!"id".equals(order.getProperty())) {
+                orderBy.append(alias).append('.').append(order.getProperty())
+                        .append(order.isAscending() ? " ASC, " : " DESC, ");
+            }
+        }
+        Sort.Order byId = sort.getOrderFor("id");
+        return orderBy.append(alias).append(".id").append(byId != null && byId.isDescending() ? " DESC" : " ASC").toString();
+    }
+
+    // ------------------ Fetch graph ------------------
+    private <T> Optional<T> single(Class<T> type, String jpql, Long id, FieldSelection selection) {
+        return list(type, jpql, Map.of("id", id), selection).stream().findFirst();
+    }
+
+    private <T> List<T> list(Class<T> type, String jpql, Map<String, Object> params, FieldSelection selection) {
+        TypedQuery<T> query = entityManager.createQuery(jpql, type)
+                .setHint(FETCH_GRAPH, graphOf(type, selection));
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    // Paths arrive closed under prefixes (candidates before candidates.party), so each parent node exists
+    private <T> EntityGraph<T> graphOf(Class<T> type, FieldSelection selection) {
+        EntityGraph<T> graph = entityManager.createEntityGraph(type);
+        Map<String, Subgraph<?>> subgraphs = new HashMap<>();
+        for (String path : selection.expandPaths()) {
+            int dot = path.lastIndexOf('.');
+            String attribute = path.substring(dot + 1);
+            subgraphs.put(path, dot < 0
+                    ? graph.addSubgraph(attribute)
+                    : subgraphs.get(path.substring(0, dot)).addSubgraph(attribute));
+        }
+        return graph;
+    }
+}
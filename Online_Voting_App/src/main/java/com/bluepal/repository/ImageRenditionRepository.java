@@ -0,0 +1,31 @@
+package com.bluepal.repository;
+
+import com.bluepal.entity.ImageRendition;
+import com.bluepal.entity.ImageSize;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageRenditionRepository extends JpaRepository<ImageRendition, Long> {
+
+    Optional<ImageRendition> findBySourceHashAndSize(String sourceHash, ImageSize size);
+
+    boolean existsBySourceHashAndSize(String sourceHash, ImageSize size);
+
+    // ------------------ Moving rendition bytes to the filesystem media store ------------------
+    @Query("SELECT r.id FROM ImageRendition r WHERE r.data IS NOT NULL")
+    List<Long> findIdsWithDataInDatabase();
+
+    @Query("SELECT r.data FROM ImageRendition r WHERE r.id = :id")
+    Optional<byte[]> findDataById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageRendition r SET r.data = NULL, r.dataHash = :hash WHERE r.id = :id")
+    int clearData(@Param("id") Long id, @Param("hash") String hash);
+}
@@ -1,10 +1,56 @@
 package com.bluepal.repository;
 
+import com.bluepal.entity.ImageStatus;
 import com.bluepal.entity.Party;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PartyRepository extends JpaRepository<Party, Long> {
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.parties")})
     Optional<Party> findByName(String name);
+
+    // ------------------ Logo access for /api/media (no entity load) ------------------
+    @Query("SELECT p.logoHash FROM Party p WHERE p.id = :id")
+    Optional<String> findLogoHashById(@Param("id") Long id);
+
+    @Query("SELECT p.logo FROM Party p WHERE p.id = :id")
+    Optional<byte[]> findLogoById(@Param("id") Long id);
+
+    @Query("SELECT p.id FROM Party p WHERE p.logo IS NOT NULL")
+    List<Long> findIdsWithLogoInDatabase();
+
+    // After the logo was copied to the filesystem media store; skipped if a new logo was uploaded meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE Party p SET p.logo = NULL, p.logoHash = :hash, p.updatedAt = :now WHERE p.id = :id AND (p.logoHash = :hash OR p.logoHash IS NULL)")
+    int clearLogo(@Param("id") Long id, @Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.id FROM Party p WHERE p.logo IS NOT NULL AND p.logoHash IS NULL")
+    List<Long> findIdsWithUnhashedLogo();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Party p SET p.logoHash = :hash, p.updatedAt = :now WHERE p.id = :id")
+    int updateLogoHash(@Param("id") Long id, @Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // ------------------ Rendition status (only if the logo wasn't replaced meanwhile) ------------------
+    @Query("SELECT p.id FROM Party p WHERE p.logoHash IS NOT NULL AND (p.logoStatus IS NULL OR p.logoStatus = :pending)")
+    List<Long> findIdsWithPendingLogo(@Param("pending") ImageStatus pending);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Party p SET p.logoStatus = :status, p.updatedAt = :now WHERE p.id = :id AND p.logoHash = :hash")
+    int updateLogoStatus(@Param("id") Long id, @Param("hash") String hash, @Param("status") ImageStatus status, @Param("now") LocalDateTime now);
 }
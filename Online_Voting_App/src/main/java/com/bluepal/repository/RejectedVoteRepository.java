@@ -0,0 +1,11 @@
+package com.bluepal.repository;
+
+import com.bluepal.entity.RejectedVote;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RejectedVoteRepository extends JpaRepository<RejectedVote, Long> {
+
+    List<RejectedVote> findAllByOrderByIdDesc();
+}
@@ -0,0 +1,56 @@
+package com.bluepal.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * Version stamps for the conditional GETs: one aggregate row per read, so an unchanged resource is
+ * answered without loading it. A stamp moves when a row it covers is written (updated_at), added or
+ * removed (the count; allowed_voters has no updated_at, so its ids are summed as well).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourceVersionRepository {
+
+    // Elections, candidates and parties: every list of them can nest the other two
+    private static final String CATALOG_SQL =
+            "SELECT "
+                    + "(SELECT COUNT(*) FROM elections) AS elections, "
+                    + "(SELECT MAX(updated_at) FROM elections) AS elections_updated, "
+                    + "(SELECT COUNT(*) FROM candidates) AS candidates, "
+                    + "(SELECT MAX(updated_at) FROM candidates) AS candidates_updated, "
+                    + "(SELECT COUNT(*) FROM parties) AS parties, "
+                    + "(SELECT MAX(updated_at) FROM parties) AS parties_updated";
+
+    private static final String ELECTION_CANDIDATES_SQL =
+            "SELECT "
+                    + "(SELECT COUNT(*) FROM elections e WHERE e.id = :electionId) AS election_exists, "
+                    + "(SELECT MAX(e.updated_at) FROM elections e WHERE e.id = :electionId) AS election_updated, "
+                    + "(SELECT COUNT(*) FROM candidates c WHERE c.election_id = :electionId) AS candidates, "
+                    + "(SELECT MAX(c.updated_at) FROM candidates c WHERE c.election_id = :electionId) AS candidates_updated, "
+                    + "(SELECT MAX(p.updated_at) FROM candidates c JOIN parties p ON p.id = c.party_id "
+                    + "  WHERE c.election_id = :electionId) AS parties_updated";
+
+    private static final String VOTER_ELECTIONS_SQL =
+            "SELECT COUNT(*) AS allowed, SUM(a.id) AS allowed_ids, MAX(e.updated_at) AS elections_updated "
+                    + "FROM allowed_voters a JOIN elections e ON e.id = a.election_id WHERE a.voter_id = :voterId";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public Map<String, Object> catalogStamp() {
+        return jdbc.queryForMap(CATALOG_SQL, new MapSqlParameterSource());
+    }
+
+    // election_exists is 0 for an unknown election
+    public Map<String, Object> electionCandidatesStamp(Long electionId) {
+        return jdbc.queryForMap(ELECTION_CANDIDATES_SQL, new MapSqlParameterSource("electionId", electionId));
+    }
+
+    public Map<String, Object> voterElectionsStamp(String voterId) {
+        return jdbc.queryForMap(VOTER_ELECTIONS_SQL, new MapSqlParameterSource("voterId", voterId));
+    }
+}
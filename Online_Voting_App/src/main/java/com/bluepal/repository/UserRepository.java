@@ -3,6 +3,8 @@ package com.bluepal.repository;
 import com.bluepal.entity.User;
 import com.bluepal.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,5 +16,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByVoterId(String voterId);
 
+    @Query("SELECT u.id FROM User u WHERE u.voterId = :voterId")
+    Optional<Long> findIdByVoterId(@Param("voterId") String voterId);
+
     List<User> findByRole(Role role);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
 }
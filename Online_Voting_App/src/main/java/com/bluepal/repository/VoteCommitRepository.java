@@ -0,0 +1,97 @@
+package com.bluepal.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vote commit path: one INSERT ... SELECT that only produces a row when the election is open (ONGOING
+ * and within its dates, the same test ActiveElectionIndex applies to journaled votes),
+ * the candidate belongs to it and the voter is on its roll. The (voter_id, election_id) unique
+ * constraint rejects repeat votes in the same statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VoteCommitRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO votes (voter_id, candidate_id, election_id, cast_at) "
+                    + "SELECT :voterUserId, c.id, e.id, :now FROM elections e "
+                    + "JOIN candidates c ON c.id = :candidateId AND c.election_id = e.id "
+                    + "JOIN allowed_voters a ON a.election_id = e.id AND a.voter_id = :voterId "
+                    + "WHERE e.id = :electionId AND e.status = 'ONGOING' "
+                    + "AND e.start_date <= :now AND e.end_date > :now";
+
+    // Only run when the insert wrote nothing, to tell the voter why
+    private static final String REJECTION_SQL =
+            "SELECT "
+                    + "(SELECT COUNT(*) FROM elections e WHERE e.id = :electionId) AS election_exists, "
+                    + "(SELECT COUNT(*) FROM elections e WHERE e.id = :electionId AND e.status = 'ONGOING' "
+                    + "  AND e.start_date <= :now AND e.end_date > :now) AS election_open, "
+                    + "(SELECT COUNT(*) FROM candidates c WHERE c.id = :candidateId) AS candidate_exists, "
+                    + "(SELECT COUNT(*) FROM candidates c WHERE c.id = :candidateId "
+                    + "  AND c.election_id = :electionId) AS candidate_in_election, "
+                    + "(SELECT COUNT(*) FROM allowed_voters a WHERE a.election_id = :electionId "
+                    + "  AND a.voter_id = :voterId) AS voter_allowed";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    // ------------------ Insert; empty if any rule rejected the vote ------------------
+    public Optional<Long> insertIfValid(Long voterUserId, String voterId, Long candidateId,
+                                        Long electionId, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int rows = jdbc.update(INSERT_SQL,
+                params(voterId, candidateId, electionId, now).addValue("voterUserId", voterUserId),
+                keyHolder, new String[] { "id" });
+        if (rows == 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(keyHolder.getKey()).map(Number::longValue);
+    }
+
+    // ------------------ Reason a vote would be rejected (empty if it is valid) ------------------
+    public Optional<String> findRejectionReason(String voterId, Long candidateId, Long electionId, LocalDateTime now) {
+        Map<String, Object> checks = jdbc.queryForMap(REJECTION_SQL, params(voterId, candidateId, electionId, now));
+
+        if (!isSet(checks, "election_exists")) {
+            return Optional.of("Election not found");
+        }
+        if (!isSet(checks, "candidate_exists")) {
+            return Optional.of("Candidate not found");
+        }
+        if (!isSet(checks, "candidate_in_election")) {
+            return Optional.of("Candidate does not belong to this election");
+        }
+        if (!isSet(checks, "voter_allowed")) {
+            return Optional.of("Voter not allowed for this election");
+        }
+        if (!isSet(checks, "election_open")) {
+            return Optional.of("Election is not open for voting");
+        }
+        return Optional.empty();
+    }
+
+    private static MapSqlParameterSource params(String voterId, Long candidateId, Long electionId, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("voterId", voterId)
+                .addValue("candidateId", candidateId)
+                .addValue("electionId", electionId)
+                .addValue("now", now);
+    }
+
+    private static boolean isSet(Map<String, Object> checks, String column) {
+        Object value = checks.entrySet().stream()
+                .filter(e -> e.getKey().equalsIgnoreCase(column))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+        return value instanceof Number number && number.longValue() > 0;
+    }
+}
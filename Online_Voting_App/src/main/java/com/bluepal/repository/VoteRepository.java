@@ -1,10 +1,16 @@
 package com.bluepal.repository;
 
+import com.bluepal.dto.CandidateVoteCountDTO;
+import com.bluepal.dto.ElectionCandidateVoteCountDTO;
 import com.bluepal.entity.Vote;
 import com.bluepal.entity.User;
 import com.bluepal.entity.Election;
 import com.bluepal.entity.Candidate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -17,4 +23,20 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     List<Vote> findByCandidate(Candidate candidate);
     List<Vote> findByVoter(User voter);
 
+    // ------------------ Results aggregation (no Vote entities loaded) ------------------
+    @Query("SELECT new com.bluepal.dto.CandidateVoteCountDTO(v.candidate.id, COUNT(v)) "
+            + "FROM Vote v WHERE v.election.id = :electionId GROUP BY v.candidate.id")
+    List<CandidateVoteCountDTO> countVotesByCandidate(@Param("electionId") Long electionId);
+
+    @Query("SELECT new com.bluepal.dto.ElectionCandidateVoteCountDTO(v.election.id, v.candidate.id, COUNT(v)) "
+            + "FROM Vote v WHERE v.election.id IN :electionIds GROUP BY v.election.id, v.candidate.id")
+    List<ElectionCandidateVoteCountDTO> countVotesByElectionAndCandidate(@Param("electionIds") Collection<Long> electionIds);
+
+    // ------------------ Voted registry warm-up (keyset-paged by voter id) ------------------
+    @Query("SELECT v.voter.id FROM Vote v WHERE v.election.id = :electionId "
+            + "AND v.voter.id > :afterVoterId ORDER BY v.voter.id")
+    List<Long> findVoterIds(@Param("electionId") Long electionId,
+                            @Param("afterVoterId") Long afterVoterId,
+                            Pageable pageable);
+
 }
@@ -18,6 +18,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
 
 //    @Override
 //    protected void doFilterInternal(HttpServletRequest request,
@@ -67,23 +68,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
+        VerifiedToken verified = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(token);
+                // Signature is checked once per token; repeat requests hit JwtUtil's cache
+                verified = jwtUtil.verify(authHeader.substring(7));
             } catch (Exception e) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        // Tokens with claims: authenticate from the token alone (version check is in memory)
+        JwtUserPrincipal principal = verified != null ? verified.getPrincipal() : null;
+        if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (!tokenVersions.isCurrent(principal.getId(), principal.getTokenVersion())) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        }
+
+        // Older tokens (subject only) still resolve the user from the database until they expire
+        if (principal == null && verified != null && verified.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(verified.getSubject());
 
-            if (jwtUtil.validateToken(token, userDetails.getUsername())) {
+            if (userDetails.getUsername().equals(verified.getSubject()) && !verified.isExpired()) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -1,10 +1,24 @@
 package com.bluepal.security;
 
+import com.bluepal.entity.Role;
+import com.bluepal.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.function.Function;
 
@@ -17,33 +31,105 @@ public class JwtUtil {
 
     private final long EXPIRATION_MS = 24 * 60 * 60 * 1000; // 1 day
 
-    public String generateToken(String email) {
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_VOTER_ID = "voterId";
+    private static final String CLAIM_VERSION = "ver";
+
+    // Parsers are immutable and thread-safe, so one is built and shared
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(SECRET_KEY)
+            .build();
+
+    // SHA-256 of the token -> verified contents; each entry expires with its token
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${voting.security.token-cache-size:100000}") long tokenCacheSize,
+                   MeterRegistry meterRegistry) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+    }
+
+    // Role, user id, voter id and token version travel in the token so requests need no user lookup
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email) // store email as subject
+                .setSubject(user.getEmail()) // store email as subject
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_VOTER_ID, user.getVoterId())
+                .claim(CLAIM_VERSION, user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
                 .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // ------------------ Verify once per token, then serve from the cache ------------------
+    // Throws JwtException (or IllegalArgumentException) for a bad, tampered or expired token
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && !verified.isExpired()) {
+            return verified;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        verified = new VerifiedToken(claims.getSubject(), claims.getExpiration().toInstant(), claims, principalOf(claims));
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).getClaims());
     }
 
     public boolean validateToken(String token, String email) {
-        return email.equals(extractEmail(token)) && !isTokenExpired(token);
+        VerifiedToken verified = verify(token);
+        return email.equals(verified.getSubject()) && !verified.isExpired();
+    }
+
+    private static JwtUserPrincipal principalOf(Claims claims) {
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        if (role == null || userId == null || version == null) {
+            return null;
+        }
+        return new JwtUserPrincipal(userId.longValue(), claims.getSubject(),
+                claims.get(CLAIM_VOTER_ID, String.class), Role.valueOf(role), version.longValue());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,54 @@
+package com.bluepal.security;
+
+import com.bluepal.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user, held in memory so token revocation costs no query per request.
+ * Tokens carry the version they were issued with; bumping users.token_version (on a credential,
+ * role or voter id change, or on delete) makes every earlier token stale. Versions are loaded once
+ * per user and re-read after {@code voting.security.token-version-ttl-seconds}, which bounds how
+ * long a change made on another node can go unnoticed here.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final long REVOKED = -1;
+
+    private final UserRepository userRepo;
+    private final Cache<Long, Long> versions;
+
+    public TokenVersionRegistry(UserRepository userRepo,
+                                @Value("${voting.security.token-version-cache-size:200000}") long cacheSize,
+                                @Value("${voting.security.token-version-ttl-seconds:300}") long ttlSeconds) {
+        this.userRepo = userRepo;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long current = versions.getIfPresent(userId);
+        if (current == null) {
+            // Loaded outside the cache's own compute (which holds a lock) so the query can't pin a virtual thread
+            current = userRepo.findTokenVersionById(userId).orElse(REVOKED);
+            versions.asMap().putIfAbsent(userId, current);
+        }
+        return current == tokenVersion;
+    }
+
+    // Called once the new version is saved, so this node stops accepting old tokens right away
+    public void updated(Long userId, long tokenVersion) {
+        versions.put(userId, tokenVersion);
+    }
+
+    public void deleted(Long userId) {
+        versions.put(userId, REVOKED);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bluepal.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// A token whose signature and expiry have been checked, as cached by JwtUtil
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+    private final String subject;
+    private final Instant expiresAt;
+    private final Claims claims;
+    private final JwtUserPrincipal principal; // null for tokens issued before claims were added
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+}
@@ -5,6 +5,8 @@ import com.bluepal.dto.CandidateResponseDTO;
 import com.bluepal.entity.Candidate;
 import com.bluepal.entity.Election;
 import com.bluepal.entity.Party;
+import org.springframework.web.multipart.MultipartFile;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +25,6 @@ public interface CandidateService {
     void deleteCandidate(Long id);
     
     public CandidateResponseDTO updateCandidate(Long id, CandidateRequestDTO dto); 
+
+    CandidateResponseDTO updatePhoto(Long id, MultipartFile photo);
 }
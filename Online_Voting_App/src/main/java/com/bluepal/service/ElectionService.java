@@ -2,8 +2,11 @@ package com.bluepal.service;
 
 import com.bluepal.dto.ElectionRequestDTO;
 import com.bluepal.dto.ElectionResponseDTO;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.entity.Election;
 import com.bluepal.entity.ElectionStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,4 +28,14 @@ public interface ElectionService {
     ElectionResponseDTO createElection(ElectionRequestDTO dto);
 
     ElectionResponseDTO mapToDTO(Election election);
+
+    List<ElectionResponseDTO> findActive();
+
+    FieldSelection selection(String fields, String expand);
+
+    Page<ElectionResponseDTO> getElections(ElectionStatus status, Pageable pageable, FieldSelection selection);
+
+    Pageable pageRequest(Integer page, int size, String sort);
+
+    ElectionResponseDTO getElection(Long id, FieldSelection selection);
 }
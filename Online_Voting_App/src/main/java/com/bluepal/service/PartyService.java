@@ -3,6 +3,8 @@ package com.bluepal.service;
 import com.bluepal.dto.PartyRequestDTO;
 import com.bluepal.dto.PartyResponseDTO;
 import com.bluepal.entity.Party;
+import org.springframework.web.multipart.MultipartFile;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,6 @@ public interface PartyService {
     void deleteParty(Long id);
     
     public PartyResponseDTO updateParty(Long id, PartyRequestDTO dto);
+
+    PartyResponseDTO updateLogo(Long id, MultipartFile logo);
 }
@@ -1,5 +1,6 @@
 package com.bluepal.service.impl;
 
+import com.bluepal.cache.EligibilityIndex;
 import com.bluepal.dto.AllowedVoterRequestDTO;
 import com.bluepal.dto.AllowedVoterResponseDTO;
 import com.bluepal.dto.ElectionResponseDTO;
@@ -20,6 +21,7 @@ public class AllowedVoterServiceImpl {
 
     private final AllowedVoterRepository allowedVoterRepo;
     private final ElectionRepository electionRepo;
+    private final EligibilityIndex eligibilityIndex;
 
     // ------------------ Add Allowed Voter ------------------
     public AllowedVoterResponseDTO addAllowedVoter(AllowedVoterRequestDTO dto) {
@@ -43,6 +45,7 @@ public class AllowedVoterServiceImpl {
                 .build();
 
         allowedVoter = allowedVoterRepo.save(allowedVoter);
+        eligibilityIndex.allow(election.getId(), allowedVoter.getVoterId());
         return mapToDTO(allowedVoter);
     }
 
@@ -56,10 +59,10 @@ public class AllowedVoterServiceImpl {
 
     // ------------------ Delete Allowed Voter ------------------
     public void deleteAllowedVoter(Long id) {
-        if (!allowedVoterRepo.existsById(id)) {
-            throw new RuntimeException("Allowed voter not found");
-        }
-        allowedVoterRepo.deleteById(id);
+        AllowedVoter allowedVoter = allowedVoterRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Allowed voter not found"));
+        allowedVoterRepo.delete(allowedVoter);
+        eligibilityIndex.revoke(allowedVoter.getElection().getId(), allowedVoter.getVoterId());
     }
 
     // ------------------ Map to DTO ------------------
@@ -0,0 +1,157 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.cache.BallotCache;
+import com.bluepal.cache.BallotCache.Ballot;
+import com.bluepal.dto.ElectionResponseDTO;
+import com.bluepal.dto.FieldSelection;
+import com.bluepal.entity.Election;
+import com.bluepal.entity.Candidate;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.lifecycle.ElectionLifecycleListener;
+import com.bluepal.repository.FetchPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The ballot every voter of an election sees: the election, its candidates and their parties,
+ * serialized and gzipped once and then served as the same bytes to every voter.
+ * Built when the election opens and, after an admin change dropped it, on the next read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BallotServiceImpl implements ElectionLifecycleListener {
+
+    // What VotePage shows; photoStatus is left out, so finished renditions don't change the ballot
+    private static final FieldSelection BALLOT = FieldSelection.parse(
+            "candidates.name,candidates.bio,candidates.photoUrl,candidates.party.name,candidates.party.logoUrl",
+            "candidates.party", Set.of("candidates.party"), Set.of());
+
+    // Not ElectionServiceImpl: it needs the lifecycle scheduler, which needs this listener
+    private final FetchPlanRepository fetchPlanRepo;
+    private final CandidateServiceImpl candidateService;
+    private final BallotCache ballotCache;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, CompletableFuture<Ballot>> building = new ConcurrentHashMap<>();
+
+    // ------------------ Voter read path ------------------
+    public Ballot getBallot(Long electionId) {
+        Ballot ballot = ballotCache.get(electionId);
+        return ballot != null ? ballot : build(electionId);
+    }
+
+    // For clients that don't accept gzip
+    public byte[] json(Ballot ballot) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(ballot.gzip()))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ------------------ Lifecycle hooks ------------------
+    @Override
+    public void electionOpened(Election election) {
+        ballotCache.invalidate(election.getId());
+        build(election.getId());
+    }
+
+    @Override
+    public void electionClosed(Election election) {
+        ballotCache.invalidate(election.getId());
+    }
+
+    @Override
+    public void electionDeleted(Long electionId) {
+        ballotCache.invalidate(electionId);
+    }
+
+    // ------------------ Build ------------------
+    // Readers arriving while a ballot is built wait for that build instead of starting their own
+    private Ballot build(Long electionId) {
+        CompletableFuture<Ballot> mine = new CompletableFuture<>();
+        CompletableFuture<Ballot> running = building.putIfAbsent(electionId, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            long generation = ballotCache.generation();
+            Ballot ballot = render(electionId);
+            ballotCache.put(electionId, ballot, generation);
+            mine.complete(ballot);
+            return ballot;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(electionId, mine);
+        }
+    }
+
+    private Ballot render(Long electionId) {
+        Election election = fetchPlanRepo.findElection(electionId, BALLOT)
+                .orElseThrow(() -> new ResourceNotFoundException("Election not found"));
+        ElectionResponseDTO ballot = ElectionResponseDTO.builder()
+                .id(election.getId())
+                .title(election.getTitle())
+                .description(election.getDescription())
+                .startDate(election.getStartDate())
+                .endDate(election.getEndDate())
+                .status(election.getStatus().name())
+                .candidates(election.getCandidates().stream()
+                        .sorted(Comparator.comparing(Candidate::getId))
+                        .map(candidate -> candidateService.mapToDTO(candidate, BALLOT.nested("candidates")))
+                        .toList())
+                .build();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(ballot);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            log.debug("Election {} ballot built ({} bytes, {} gzipped)", electionId, json.length, gzip.size());
+            return new Ballot(gzip.toByteArray(), sha256(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize the ballot", e);
+        }
+    }
+
+    private static Ballot await(CompletableFuture<Ballot> build) {
+        try {
+            return build.join();
+        } catch (CompletionException e) {
+            // The builder's own exception, e.g. ResourceNotFoundException for an unknown election
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
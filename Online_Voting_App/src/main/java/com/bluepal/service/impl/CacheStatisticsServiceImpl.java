@@ -0,0 +1,49 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.dto.CacheRegionStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hit/miss counts of the Hibernate second-level cache, one entry per region
+ * (entity regions parties/candidates/elections and the query.* finder regions).
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsServiceImpl {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public List<CacheRegionStatsDTO> regionStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toDTO(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private CacheRegionStatsDTO toDTO(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return null;
+        }
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        long entries = stats.getElementCountInMemory();
+        return CacheRegionStatsDTO.builder()
+                .region(region)
+                .hits(stats.getHitCount())
+                .misses(stats.getMissCount())
+                .puts(stats.getPutCount())
+                .entries(entries < 0 ? -1 : entries)
+                .hitRatio(lookups == 0 ? 0 : (double) stats.getHitCount() / lookups)
+                .build();
+    }
+}
@@ -1,21 +1,30 @@
 package com.bluepal.service.impl;
 
+import com.bluepal.cache.ActiveElectionIndex;
+import com.bluepal.cache.BallotCache;
 import com.bluepal.dto.CandidateRequestDTO;
 import com.bluepal.dto.CandidateResponseDTO;
 import com.bluepal.dto.ElectionResponseDTO;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.dto.PartyResponseDTO;
 import com.bluepal.entity.Candidate;
 import com.bluepal.entity.Party;
 import com.bluepal.entity.Election;
+import com.bluepal.entity.ImageStatus;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.ingest.VoteIngestGate;
 import com.bluepal.repository.CandidateRepository;
+import com.bluepal.repository.FetchPlanRepository;
 import com.bluepal.repository.PartyRepository;
 import com.bluepal.service.CandidateService;
 import com.bluepal.repository.ElectionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +34,16 @@ public class CandidateServiceImpl implements CandidateService {
     private final CandidateRepository candidateRepo;
     private final PartyRepository partyRepo;
     private final ElectionRepository electionRepo;
+    private final MediaServiceImpl mediaService;
+    private final ImageProcessingServiceImpl imageProcessing;
+    private final FetchPlanRepository fetchPlanRepo;
+    private final BallotCache ballotCache;
+    private final ActiveElectionIndex activeElections;
+    private final VoteIngestGate ingestGate;
+
+    // Nested objects a candidate can return; both are returned unless ?expand= says otherwise
+    private static final Set<String> EXPANSIONS = Set.of("party", "election");
+    private static final FieldSelection DEFAULT_SELECTION = FieldSelection.parse(null, null, EXPANSIONS, EXPANSIONS);
 
     public CandidateResponseDTO createCandidate(CandidateRequestDTO dto) {
         Party party = partyRepo.findById(dto.getPartyId())
@@ -33,41 +52,75 @@ public class CandidateServiceImpl implements CandidateService {
         Election election = electionRepo.findById(dto.getElectionId())
                 .orElseThrow(() -> new RuntimeException("Election not found"));
 
+        String photoHash = mediaService.hash(dto.getPhoto());
         Candidate candidate = Candidate.builder()
                 .name(dto.getName())
-                .photo(dto.getPhoto())
+                .photo(mediaService.toLobColumn(dto.getPhoto()))
+                .photoHash(photoHash)
+                .photoStatus(photoHash != null ? ImageStatus.PENDING : null)
                 .bio(dto.getBio())
                 .party(party)
                 .election(election)
                 .build();
 
         candidate = candidateRepo.save(candidate);
+        ballotCache.invalidate(election.getId());
+        activeElections.candidatesChanged(election.getId());
+        if (photoHash != null) {
+            imageProcessing.processCandidatePhoto(candidate.getId(), photoHash, dto.getPhoto());
+        }
         return mapToDTO(candidate);
     }
 
     public CandidateResponseDTO mapToDTO(Candidate candidate) {
+        return mapToDTO(candidate, DEFAULT_SELECTION);
+    }
+
+    // Nested objects the selection doesn't expand are never touched, so their proxies stay unloaded
+    public CandidateResponseDTO mapToDTO(Candidate candidate, FieldSelection selection) {
+        FieldSelection party = selection.nested("party");
+        FieldSelection election = selection.nested("election");
         return CandidateResponseDTO.builder()
                 .id(candidate.getId())
-                .name(candidate.getName())
-                .photo(candidate.getPhoto())
-                .bio(candidate.getBio())
-                .party(PartyResponseDTO.builder()
+                .name(selection.includes("name") ? candidate.getName() : null)
+                .photoUrl(selection.includes("photoUrl") ? mediaService.candidatePhotoUrl(candidate) : null)
+                .photoStatus(selection.includes("photoStatus") && candidate.getPhotoStatus() != null
+                        ? candidate.getPhotoStatus().name() : null)
+                .bio(selection.includes("bio") ? candidate.getBio() : null)
+                .party(!selection.expands("party") ? null : PartyResponseDTO.builder()
                         .id(candidate.getParty().getId())
-                        .name(candidate.getParty().getName())
-                        .logo(candidate.getParty().getLogo())
-                        .description(candidate.getParty().getDescription())
+                        .name(party.includes("name") ? candidate.getParty().getName() : null)
+                        .logoUrl(party.includes("logoUrl") ? mediaService.partyLogoUrl(candidate.getParty()) : null)
+                        .description(party.includes("description") ? candidate.getParty().getDescription() : null)
                         .build())
-                .election(ElectionResponseDTO.builder()
+                .election(!selection.expands("election") ? null : ElectionResponseDTO.builder()
                         .id(candidate.getElection().getId())
-                        .title(candidate.getElection().getTitle())
-                        .description(candidate.getElection().getDescription())
-                        .startDate(candidate.getElection().getStartDate())
-                        .endDate(candidate.getElection().getEndDate())
-                        .status(candidate.getElection().getStatus().name())
+                        .title(election.includes("title") ? candidate.getElection().getTitle() : null)
+                        .description(election.includes("description") ? candidate.getElection().getDescription() : null)
+                        .startDate(election.includes("startDate") ? candidate.getElection().getStartDate() : null)
+                        .endDate(election.includes("endDate") ? candidate.getElection().getEndDate() : null)
+                        .status(election.includes("status") ? candidate.getElection().getStatus().name() : null)
                         .build())
                 .build();
     }
 
+    // ------------------ Reads with ?fields= / ?expand= ------------------
+    public FieldSelection selection(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, EXPANSIONS, EXPANSIONS);
+    }
+
+    // electionId / partyId narrow the list when given
+    public List<CandidateResponseDTO> getCandidates(Long electionId, Long partyId, FieldSelection selection) {
+        return fetchPlanRepo.findCandidates(electionId, partyId, selection).stream()
+                .map(candidate -> mapToDTO(candidate, selection))
+                .collect(Collectors.toList());
+    }
+
+    public CandidateResponseDTO getCandidate(Long id, FieldSelection selection) {
+        return fetchPlanRepo.findCandidate(id, selection)
+                .map(candidate -> mapToDTO(candidate, selection))
+                .orElseThrow(() -> new ResourceNotFoundException("Candidate not found"));
+    }
 
     public List<CandidateResponseDTO> getAllCandidates() {
         return candidateRepo.findAll().stream().map(this::mapToDTO).collect(Collectors.toList());
@@ -86,7 +139,16 @@ public class CandidateServiceImpl implements CandidateService {
     }
 
     public void deleteCandidate(Long id) {
-        candidateRepo.deleteById(id);
+        Long electionId = candidateRepo.findById(id).map(candidate -> candidate.getElection().getId()).orElse(null);
+        ingestGate.exclusive(() -> {
+            candidateRepo.deleteById(id);
+            if (electionId != null) {
+                activeElections.candidatesChanged(electionId);
+            }
+        });
+        if (electionId != null) {
+            ballotCache.invalidate(electionId);
+        }
     }
 
 	@Override
@@ -105,6 +167,7 @@ public class CandidateServiceImpl implements CandidateService {
 	public CandidateResponseDTO updateCandidate(Long id, CandidateRequestDTO dto) {
 	    Candidate existing = candidateRepo.findById(id)
 	            .orElseThrow(() -> new RuntimeException("Candidate not found"));
+	    Long previousElectionId = existing.getElection().getId();
 
 	    if (dto.getName() != null && !dto.getName().isEmpty()) {
 	        existing.setName(dto.getName());
@@ -114,8 +177,12 @@ public class CandidateServiceImpl implements CandidateService {
 	        existing.setBio(dto.getBio());
 	    }
 
+	    boolean photoChanged = false;
 	    if (dto.getPhoto() != null && dto.getPhoto().length > 0) {
-	        existing.setPhoto(dto.getPhoto());
+	        existing.setPhoto(mediaService.toLobColumn(dto.getPhoto()));
+	        existing.setPhotoHash(mediaService.hash(dto.getPhoto()));
+	        existing.setPhotoStatus(ImageStatus.PENDING);
+	        photoChanged = true;
 	    }
 
 	    if (dto.getPartyId() != null) {
@@ -131,7 +198,28 @@ public class CandidateServiceImpl implements CandidateService {
 	    }
 
 	    existing = candidateRepo.save(existing);
+	    ballotCache.invalidate(previousElectionId);
+	    ballotCache.invalidate(existing.getElection().getId());
+	    activeElections.candidatesChanged(previousElectionId);
+	    activeElections.candidatesChanged(existing.getElection().getId());
+	    if (photoChanged) {
+	        imageProcessing.processCandidatePhoto(existing.getId(), existing.getPhotoHash(), dto.getPhoto());
+	    }
 	    return mapToDTO(existing);
 	}
 
+	// Photo streamed from a multipart upload instead of a byte array inside the JSON body
+	@Override
+	public CandidateResponseDTO updatePhoto(Long id, MultipartFile photo) {
+	    if (!candidateRepo.existsById(id)) {
+	        throw new RuntimeException("Candidate not found");
+	    }
+	    String photoHash = mediaService.replaceCandidatePhoto(id, photo);
+	    imageProcessing.processCandidatePhoto(id, photoHash);
+	    Candidate candidate = candidateRepo.findById(id)
+	            .orElseThrow(() -> new RuntimeException("Candidate not found"));
+	    ballotCache.invalidate(candidate.getElection().getId());
+	    return mapToDTO(candidate);
+	}
+
 }
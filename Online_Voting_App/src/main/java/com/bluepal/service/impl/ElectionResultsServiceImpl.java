@@ -0,0 +1,184 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.cache.VoteTallyRegistry;
+import com.bluepal.dto.AdminCandidateResultDTO;
+import com.bluepal.dto.AdminElectionResultDTO;
+import com.bluepal.dto.CandidateResultDTO;
+import com.bluepal.dto.CandidateVoteCountDTO;
+import com.bluepal.dto.ElectionCandidateVoteCountDTO;
+import com.bluepal.dto.ElectionResultDTO;
+import com.bluepal.entity.Candidate;
+import com.bluepal.entity.Election;
+import com.bluepal.entity.ElectionStatus;
+import com.bluepal.repository.CandidateRepository;
+import com.bluepal.repository.ElectionRepository;
+import com.bluepal.repository.VoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ElectionResultsServiceImpl {
+
+    private final ElectionRepository electionRepo;
+    private final CandidateRepository candidateRepo;
+    private final VoteRepository voteRepo;
+    private final VoteTallyRegistry tallyRegistry;
+    private final MediaServiceImpl mediaService;
+
+    // ------------------ Voter results (after election ends) ------------------
+    public ElectionResultDTO getElectionResults(Long electionId) {
+        Election election = electionRepo.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+
+        // Restrict voters from seeing results before election ends
+        if (LocalDateTime.now().isBefore(election.getEndDate())) {
+            throw new RuntimeException("Results not available until the election ends");
+        }
+
+        List<Candidate> candidates = candidateRepo.findByElection(election);
+        Map<Long, Long> counts = countVotesByCandidate(election.getId());
+        long totalVotes = totalOf(counts);
+
+        List<CandidateResultDTO> candidateResults = candidates.stream().map(c -> {
+            long voteCount = counts.getOrDefault(c.getId(), 0L);
+
+            return CandidateResultDTO.builder()
+                    .candidateId(c.getId())
+                    .candidateName(c.getName())
+                    .candidatePhotoUrl(mediaService.candidatePhotoUrl(c))
+                    .partyName(c.getParty().getName())
+                    .partyLogoUrl(mediaService.partyLogoUrl(c.getParty()))
+                    .voteCount(voteCount)
+                    .percentage(percentageOf(voteCount, totalVotes))
+                    .build();
+        }).sorted((a, b) -> Long.compare(b.getVoteCount(), a.getVoteCount()))
+          .collect(Collectors.toList());
+
+        CandidateResultDTO winner = candidateResults.isEmpty() ? null : candidateResults.get(0);
+
+        return ElectionResultDTO.builder()
+                .electionId(election.getId())
+                .title(election.getTitle())
+                .startDate(election.getStartDate())
+                .endDate(election.getEndDate())
+                .totalVotes(totalVotes)
+                .candidateResults(candidateResults)
+                .winner(winner)
+                .build();
+    }
+
+    // ------------------ Admin results (any time) ------------------
+    public AdminElectionResultDTO getAdminElectionResults(Long electionId) {
+        Election election = electionRepo.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+
+        List<Candidate> candidates = candidateRepo.findByElection(election);
+        // Ongoing elections are served from live counters; others fall back to the database
+        Map<Long, Long> counts = tallyRegistry.counts(election.getId())
+                .orElseGet(() -> countVotesByCandidate(election.getId()));
+        return toAdminResult(election, candidates, counts);
+    }
+
+    // ------------------ Admin results for many elections (batched) ------------------
+    // One query for the elections, one for their candidates and parties, one GROUP BY for the counts
+    // of elections without live counters; DTOs are then assembled in parallel.
+    public List<AdminElectionResultDTO> getAdminElectionResults(ElectionStatus status, Integer page, int size) {
+        List<Election> elections = findElections(status, page, size);
+        if (elections.isEmpty()) {
+            return List.of();
+        }
+        List<Long> electionIds = elections.stream().map(Election::getId).collect(Collectors.toList());
+
+        Map<Long, List<Candidate>> candidatesByElection = candidateRepo.findWithPartyByElectionIds(electionIds).stream()
+                .collect(Collectors.groupingBy(c -> c.getElection().getId()));
+
+        Map<Long, Map<Long, Long>> countsByElection = new HashMap<>();
+        List<Long> untracked = new ArrayList<>();
+        for (Long electionId : electionIds) {
+            tallyRegistry.counts(electionId).ifPresentOrElse(
+                    counts -> countsByElection.put(electionId, counts),
+                    () -> untracked.add(electionId));
+        }
+        if (!untracked.isEmpty()) {
+            for (ElectionCandidateVoteCountDTO row : voteRepo.countVotesByElectionAndCandidate(untracked)) {
+                countsByElection.computeIfAbsent(row.getElectionId(), id -> new HashMap<>())
+                        .put(row.getCandidateId(), row.getVoteCount());
+            }
+        }
+
+        return elections.parallelStream()
+                .map(election -> toAdminResult(election,
+                        candidatesByElection.getOrDefault(election.getId(), List.of()),
+                        countsByElection.getOrDefault(election.getId(), Map.of())))
+                .collect(Collectors.toList());
+    }
+
+    // All elections when no page is given (what the admin dashboard has always received)
+    private List<Election> findElections(ElectionStatus status, Integer page, int size) {
+        Sort byId = Sort.by("id");
+        if (page == null) {
+            return status == null ? electionRepo.findAll(byId) : electionRepo.findByStatus(status, Pageable.unpaged(byId)).getContent();
+        }
+        Pageable pageable = PageRequest.of(page, size, byId);
+        return (status == null ? electionRepo.findAll(pageable) : electionRepo.findByStatus(status, pageable)).getContent();
+    }
+
+    private AdminElectionResultDTO toAdminResult(Election election, List<Candidate> candidates, Map<Long, Long> counts) {
+        long totalVotes = totalOf(counts);
+
+        List<AdminCandidateResultDTO> candidateResults = candidates.stream().map(c -> {
+            long voteCount = counts.getOrDefault(c.getId(), 0L);
+
+            return AdminCandidateResultDTO.builder()
+                    .candidateId(c.getId())
+                    .candidateName(c.getName())
+                    .candidatePhotoUrl(mediaService.candidatePhotoUrl(c))
+                    .partyName(c.getParty().getName())
+                    .partyLogoUrl(mediaService.partyLogoUrl(c.getParty()))
+                    .voteCount(voteCount)
+                    .percentage(percentageOf(voteCount, totalVotes))
+                    .candidateBio(c.getBio())
+                    .electionId(election.getId())
+                    .partyId(c.getParty().getId())
+                    .build();
+        }).sorted((a, b) -> Long.compare(b.getVoteCount(), a.getVoteCount()))
+          .collect(Collectors.toList());
+
+        AdminCandidateResultDTO winner = candidateResults.isEmpty() ? null : candidateResults.get(0);
+
+        return AdminElectionResultDTO.builder()
+                .electionId(election.getId())
+                .title(election.getTitle())
+                .startDate(election.getStartDate())
+                .endDate(election.getEndDate())
+                .totalVotes(totalVotes)
+                .candidateResults(candidateResults)
+                .winner(winner)
+                .build();
+    }
+
+    // ------------------ Per-candidate counts via GROUP BY ------------------
+    public Map<Long, Long> countVotesByCandidate(Long electionId) {
+        return voteRepo.countVotesByCandidate(electionId).stream()
+                .collect(Collectors.toMap(CandidateVoteCountDTO::getCandidateId, CandidateVoteCountDTO::getVoteCount));
+    }
+
+    private long totalOf(Map<Long, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private double percentageOf(long voteCount, long totalVotes) {
+        return totalVotes == 0 ? 0 : ((double) voteCount / totalVotes) * 100;
+    }
+}
@@ -1,19 +1,29 @@
 package com.bluepal.service.impl;
 
-import com.bluepal.dto.CandidateResponseDTO;
+import com.bluepal.cache.ActiveElectionIndex;
+import com.bluepal.cache.BallotCache;
 import com.bluepal.dto.ElectionRequestDTO;
 import com.bluepal.dto.ElectionResponseDTO;
-import com.bluepal.dto.PartyResponseDTO;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.entity.Election;
 import com.bluepal.entity.ElectionStatus;
+import com.bluepal.lifecycle.ElectionLifecycleScheduler;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.ingest.VoteIngestGate;
 import com.bluepal.repository.ElectionRepository;
 import com.bluepal.repository.AllowedVoterRepository;
+import com.bluepal.repository.FetchPlanRepository;
 import com.bluepal.service.ElectionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +32,17 @@ public class ElectionServiceImpl implements ElectionService {
 
     private final ElectionRepository electionRepo;
     private final AllowedVoterRepository allowedVoterRepo;
+    private final ElectionLifecycleScheduler lifecycleScheduler;
+    private final ActiveElectionIndex activeElections;
+    private final CandidateServiceImpl candidateService;
+    private final FetchPlanRepository fetchPlanRepo;
+    private final BallotCache ballotCache;
+    private final VoteIngestGate ingestGate;
+
+    // Nested objects an election can return; candidates with their parties unless ?expand= says otherwise
+    private static final Set<String> EXPANSIONS = Set.of("candidates", "candidates.party");
+    private static final FieldSelection DEFAULT_SELECTION = FieldSelection.parse(null, null, EXPANSIONS, EXPANSIONS);
+    private static final Set<String> SORTABLE = Set.of("id", "title", "startDate", "endDate", "status", "createdAt", "updatedAt");
 
     // Save or update Election
     @Override
@@ -41,45 +62,72 @@ public class ElectionServiceImpl implements ElectionService {
                 .build();
 
         election = electionRepo.save(election);
+        lifecycleScheduler.electionSaved(null, election);
         return mapToDTO(election);
     }
 
     // Map Election entity → DTO
     public ElectionResponseDTO mapToDTO(Election election) {
+        return mapToDTO(election, DEFAULT_SELECTION);
+    }
+
+    // Candidates and their parties are read only when the selection expands them
+    public ElectionResponseDTO mapToDTO(Election election, FieldSelection selection) {
         return ElectionResponseDTO.builder()
                 .id(election.getId())
-                .title(election.getTitle())
-                .description(election.getDescription())
-                .startDate(election.getStartDate())
-                .endDate(election.getEndDate())
-                .status(election.getStatus().name())
-                .maxVoters(election.getMaxVoters())
-                .createdAt(election.getCreatedAt())
-                .updatedAt(election.getUpdatedAt())
-                .candidates(
-                    election.getCandidates() != null
+                .title(selection.includes("title") ? election.getTitle() : null)
+                .description(selection.includes("description") ? election.getDescription() : null)
+                .startDate(selection.includes("startDate") ? election.getStartDate() : null)
+                .endDate(selection.includes("endDate") ? election.getEndDate() : null)
+                .status(selection.includes("status") ? election.getStatus().name() : null)
+                .maxVoters(selection.includes("maxVoters") ? election.getMaxVoters() : null)
+                .createdAt(selection.includes("createdAt") ? election.getCreatedAt() : null)
+                .updatedAt(selection.includes("updatedAt") ? election.getUpdatedAt() : null)
+                .candidates(!selection.expands("candidates") ? null
+                        : election.getCandidates() != null
                         ? election.getCandidates().stream()
-                            .map(candidate -> CandidateResponseDTO.builder()
-                                .id(candidate.getId())
-                                .name(candidate.getName())
-                                .bio(candidate.getBio())
-                                .photo(candidate.getPhoto())  // ✅ photo included
-                                .party(
-                                    PartyResponseDTO.builder()
-                                        .id(candidate.getParty().getId())
-                                        .name(candidate.getParty().getName())
-                                        .description(candidate.getParty().getDescription())
-                                        .logo(candidate.getParty().getLogo()) // ✅ party logo
-                                        .build()
-                                )
-                                .build())
+                            .map(candidate -> candidateService.mapToDTO(candidate, selection.nested("candidates")))
                             .collect(Collectors.toList())
                         : List.of()
                 )
                 .build();
     }
 
+    // ------------------ Reads with ?fields= / ?expand= ------------------
+    @Override
+    public FieldSelection selection(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, EXPANSIONS, EXPANSIONS);
+    }
 
+    // status narrows the list when given
+    @Override
+    public Page<ElectionResponseDTO> getElections(ElectionStatus status, Pageable pageable, FieldSelection selection) {
+        return fetchPlanRepo.findElections(status, pageable, selection)
+                .map(election -> mapToDTO(election, selection));
+    }
+
+    // sort: "property" or "property,asc|desc"; no page means every election (what the admin pages expect)
+    @Override
+    public Pageable pageRequest(Integer page, int size, String sort) {
+        Sort order = Sort.by("id");
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            String property = parts[0].trim();
+            if (!SORTABLE.contains(property)) {
+                throw new RuntimeException("Cannot sort by '" + property + "', expected one of " + SORTABLE);
+            }
+            boolean descending = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+            order = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+        }
+        return page == null ? Pageable.unpaged(order) : PageRequest.of(page, size, order);
+    }
+
+    @Override
+    public ElectionResponseDTO getElection(Long id, FieldSelection selection) {
+        return fetchPlanRepo.findElection(id, selection)
+                .map(election -> mapToDTO(election, selection))
+                .orElseThrow(() -> new ResourceNotFoundException("Election not found"));
+    }
 
     // Find all Elections
     @Override
@@ -102,7 +150,16 @@ public class ElectionServiceImpl implements ElectionService {
     // Delete Election
     @Override
     public void deleteElection(Long id) {
-        electionRepo.deleteById(id);
+        ingestGate.exclusive(() -> {
+            electionRepo.deleteById(id);
+            lifecycleScheduler.electionDeleted(id);
+        });
+    }
+
+    // Currently open elections, served from memory
+    @Override
+    public List<ElectionResponseDTO> findActive() {
+        return activeElections.list();
     }
 
     // Optional: Update Election
@@ -110,6 +167,7 @@ public class ElectionServiceImpl implements ElectionService {
     public ElectionResponseDTO updateElection(Long id, ElectionRequestDTO dto) {
         Election existing = electionRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Election not found"));
+        ElectionStatus previousStatus = existing.getStatus();
 
         if (dto.getTitle() != null && !dto.getTitle().isEmpty()) {
             existing.setTitle(dto.getTitle());
@@ -131,6 +189,10 @@ public class ElectionServiceImpl implements ElectionService {
         }
 
         existing = electionRepo.save(existing);
+        ballotCache.invalidate(id);
+        // Runs open/close hooks for a manual status change and re-times the next automatic one
+        lifecycleScheduler.electionSaved(previousStatus, existing);
+
         return mapToDTO(existing);
     }
 }
@@ -0,0 +1,408 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.entity.ImageRendition;
+import com.bluepal.entity.ImageSize;
+import com.bluepal.entity.ImageStatus;
+import com.bluepal.repository.CandidateRepository;
+import com.bluepal.repository.ImageRenditionRepository;
+import com.bluepal.repository.PartyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Turns each uploaded photo or logo into thumbnail, ballot and full renditions, off the request thread.
+ * The image is decoded once, turned upright per its EXIF orientation, scaled down for every size and
+ * re-encoded (JPEG, or PNG when it has transparency); re-encoding drops EXIF and other metadata.
+ * Renditions are keyed by the hash of the original, so the same image uploaded twice is processed once.
+ * Uploads wait in a bounded queue; when it is full the image stays PENDING (its original is served) and
+ * is picked up again on the next startup.
+ */
+@Slf4j
+@Service
+public class ImageProcessingServiceImpl {
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final int APP1 = 0xE1;
+    private static final int START_OF_SCAN = 0xDA;
+    private static final int EXIF = 0x45786966; // "Exif"
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private final CandidateRepository candidateRepo;
+    private final PartyRepository partyRepo;
+    private final ImageRenditionRepository renditionRepo;
+    private final MediaServiceImpl mediaService;
+    private final long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+    private final Timer processTimer;
+    private Thread resumer;
+
+    public ImageProcessingServiceImpl(CandidateRepository candidateRepo,
+                                      PartyRepository partyRepo,
+                                      ImageRenditionRepository renditionRepo,
+                                      MediaServiceImpl mediaService,
+                                      @Value("${voting.images.threads:2}") int threads,
+                                      @Value("${voting.images.queue-capacity:100}") int queueCapacity,
+                                      @Value("${voting.images.max-pixels:40000000}") long maxPixels,
+                                      MeterRegistry meterRegistry) {
+        this.candidateRepo = candidateRepo;
+        this.partyRepo = partyRepo;
+        this.renditionRepo = renditionRepo;
+        this.mediaService = mediaService;
+        this.maxPixels = maxPixels;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "image-pipeline-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.processTimer = Timer.builder("voting.images.process")
+                .description("Time to generate all renditions of one uploaded image")
+                .register(meterRegistry);
+        Gauge.builder("voting.images.queue.depth", executor, e -> e.getQueue().size())
+                .description("Uploaded images waiting for rendition processing")
+                .register(meterRegistry);
+    }
+
+    // ------------------ Uploads (called after the owner row is saved as PENDING) ------------------
+    public void processCandidatePhoto(Long candidateId, String hash, byte[] photo) {
+        submit("Candidate " + candidateId + " photo", hash, () -> photo,
+                status -> candidateRepo.updatePhotoStatus(candidateId, hash, status, LocalDateTime.now()));
+    }
+
+    public void processPartyLogo(Long partyId, String hash, byte[] logo) {
+        submit("Party " + partyId + " logo", hash, () -> logo,
+                status -> partyRepo.updateLogoStatus(partyId, hash, status, LocalDateTime.now()));
+    }
+
+    // Streamed uploads are not in memory; the worker reads the image back from storage
+    public void processCandidatePhoto(Long candidateId, String hash) {
+        submit("Candidate " + candidateId + " photo", hash,
+                () -> stored(hash, () -> mediaService.candidatePhoto(candidateId)),
+                status -> candidateRepo.updatePhotoStatus(candidateId, hash, status, LocalDateTime.now()));
+    }
+
+    public void processPartyLogo(Long partyId, String hash) {
+        submit("Party " + partyId + " logo", hash,
+                () -> stored(hash, () -> mediaService.partyLogo(partyId)),
+                status -> partyRepo.updateLogoStatus(partyId, hash, status, LocalDateTime.now()));
+    }
+
+    // ------------------ Startup: images uploaded before renditions existed, or left PENDING ------------------
+    // Runs beside the application: the backlog can be larger than the queue, so it is fed in as the
+    // workers make room, and uploads arriving meanwhile compete for the same queue
+    @Order(1) // after MediaServiceImpl has hashed older images
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        resumer = new Thread(this::resumeLoop, "image-pipeline-resume");
+        resumer.setDaemon(true);
+        resumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (resumer != null) {
+            resumer.interrupt();
+            resumer.join();
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void resumeLoop() {
+        try {
+            int resumed = 0;
+            for (Long id : candidateRepo.findIdsWithPendingPhoto(ImageStatus.PENDING)) {
+                String hash = candidateRepo.findPhotoHashById(id).orElse(null);
+                if (hash != null) {
+                    awaitSubmit(task("Candidate " + id + " photo", hash,
+                            () -> stored(hash, () -> mediaService.candidatePhoto(id)),
+                            status -> candidateRepo.updatePhotoStatus(id, hash, status, LocalDateTime.now())));
+                    resumed++;
+                }
+            }
+            for (Long id : partyRepo.findIdsWithPendingLogo(ImageStatus.PENDING)) {
+                String hash = partyRepo.findLogoHashById(id).orElse(null);
+                if (hash != null) {
+                    awaitSubmit(task("Party " + id + " logo", hash,
+                            () -> stored(hash, () -> mediaService.partyLogo(id)),
+                            status -> partyRepo.updateLogoStatus(id, hash, status, LocalDateTime.now())));
+                    resumed++;
+                }
+            }
+            if (resumed > 0) {
+                log.info("Resumed rendition processing for {} pending images", resumed);
+            }
+        } catch (InterruptedException e) {
+            // shutting down; what was not queued stays PENDING for the next startup
+        } catch (RuntimeException e) {
+            log.warn("Could not resume pending images: {}", e.getMessage());
+        }
+    }
+
+    // Retries while the queue is full, backing off up to a second between attempts
+    private void awaitSubmit(Runnable task) throws InterruptedException {
+        long backoffMillis = 10;
+        while (true) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    throw new InterruptedException("image pipeline stopped");
+                }
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 1000);
+            }
+        }
+    }
+
+    // ------------------ Pipeline ------------------
+    private void submit(String name, String hash, Supplier<byte[]> source, Consumer<ImageStatus> statusUpdate) {
+        try {
+            executor.execute(task(name, hash, source, statusUpdate));
+        } catch (RejectedExecutionException e) {
+            log.warn("{} left pending: image queue is full", name);
+        }
+    }
+
+    private Runnable task(String name, String hash, Supplier<byte[]> source, Consumer<ImageStatus> statusUpdate) {
+        return () -> processTimer.record(() -> process(name, hash, source, statusUpdate));
+    }
+
+    private void process(String name, String hash, Supplier<byte[]> source, Consumer<ImageStatus> statusUpdate) {
+        ImageStatus status;
+        try {
+            // FULL is stored last, so its presence means an identical upload was already processed
+            if (!renditionRepo.existsBySourceHashAndSize(hash, ImageSize.FULL)) {
+                BufferedImage image = decode(source.get());
+                for (ImageSize size : ImageSize.values()) {
+                    store(render(hash, image, size));
+                }
+            }
+            status = ImageStatus.READY;
+        } catch (IOException | RuntimeException e) {
+            log.warn("{} could not be processed: {}", name, e.getMessage());
+            status = ImageStatus.FAILED;
+        }
+        statusUpdate.accept(status);
+    }
+
+    // The image may have been replaced since it was queued; renditions of the new one must not be
+    // filed under the old hash (the new upload has its own task)
+    private byte[] stored(String hash, Supplier<byte[]> load) {
+        byte[] data = mediaService.blobFile(hash).map(mediaService::readBlob).orElseGet(load);
+        return hash.equals(mediaService.hash(data)) ? data : null;
+    }
+
+    private void store(ImageRendition rendition) {
+        try {
+            renditionRepo.save(rendition);
+        } catch (DataIntegrityViolationException e) {
+            // the same image is being processed for another owner; its rendition is as good as ours
+        }
+    }
+
+    // Checks the dimensions from the header before decoding, so a small file can't expand into gigabytes
+    private BufferedImage decode(byte[] data) throws IOException {
+        if (data == null) {
+            throw new IOException("image no longer exists");
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IOException("image is larger than " + maxPixels + " pixels");
+                }
+                BufferedImage image = reader.read(0);
+                return orient(image, exifOrientation(data));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // ------------------ EXIF orientation ------------------
+    // Phone cameras store the sensor's pixels and record in EXIF how to turn them upright; re-encoding
+    // drops EXIF, so the turn is applied to the pixels. 1 (as stored) when there is none. The segments are
+    // read here because ImageIO's metadata reader rejects files with EXIF before JFIF, which some cameras write.
+    private static int exifOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int at = 2;
+        while (at + 4 <= jpeg.length && (jpeg[at] & 0xFF) == 0xFF) {
+            int marker = jpeg[at + 1] & 0xFF;
+            int length = ((jpeg[at + 2] & 0xFF) << 8) | (jpeg[at + 3] & 0xFF);
+            if (marker == START_OF_SCAN || length < 2 || at + 2 + length > jpeg.length) {
+                break;
+            }
+            if (marker == APP1) {
+                int orientation = orientationTag(ByteBuffer.wrap(jpeg, at + 4, length - 2).slice());
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+            at += 2 + length;
+        }
+        return 1;
+    }
+
+    // An EXIF APP1 is "Exif\0\0" followed by a TIFF header and IFD0; 0 when the segment holds no usable tag
+    private static int orientationTag(ByteBuffer app1) {
+        try {
+            if (app1.remaining() < 14 || app1.getInt(0) != EXIF) {
+                return 0;
+            }
+            ByteBuffer tiff = app1.position(6).slice();
+            tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            int entries = tiff.getShort(ifd) & 0xFFFF;
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                    int value = tiff.getShort(entry + 8) & 0xFFFF;
+                    return value >= 1 && value <= 8 ? value : 0;
+                }
+            }
+            return 0;
+        } catch (IndexOutOfBoundsException e) {
+            return 0; // truncated or malformed EXIF; keep the pixels as stored
+        }
+    }
+
+    // Orientations 5-8 swap width and height
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform turn = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // mirrored, upside down
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // turned 90 degrees clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // turned 90 degrees counter-clockwise
+            default -> null;
+        };
+        if (turn == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = upright.createGraphics();
+        try {
+            g.drawImage(image, turn, null);
+        } finally {
+            g.dispose();
+        }
+        return upright;
+    }
+
+    private ImageRendition render(String hash, BufferedImage source, ImageSize size) throws IOException {
+        double scale = Math.min(1.0, (double) size.getMaxDimension() / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        boolean transparent = source.getColorModel().hasAlpha();
+
+        BufferedImage scaled = scale(source, width, height, transparent);
+        byte[] data = transparent ? encodePng(scaled) : encodeJpeg(scaled);
+        return ImageRendition.builder()
+                .sourceHash(hash)
+                .size(size)
+                .contentType(transparent ? "image/png" : "image/jpeg")
+                .width(width)
+                .height(height)
+                .dataHash(mediaService.hash(data))
+                .data(mediaService.toLobColumn(data))
+                .build();
+    }
+
+    // Halves repeatedly before the last step; a single bilinear step from a large photo looks jagged
+    private BufferedImage scale(BufferedImage source, int width, int height, boolean transparent) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,334 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.dto.MediaMigrationDTO;
+import com.bluepal.entity.Candidate;
+import com.bluepal.entity.ImageRendition;
+import com.bluepal.entity.ImageSize;
+import com.bluepal.entity.ImageStatus;
+import com.bluepal.entity.Party;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.repository.CandidateRepository;
+import com.bluepal.repository.ImageRenditionRepository;
+import com.bluepal.repository.PartyRepository;
+import com.bluepal.storage.FileBlobStore;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Candidate photos and party logos, served as raw bytes from /api/media instead of base64 inside JSON.
+ * Every image is identified by the SHA-256 of its bytes; DTOs carry a URL versioned with that hash,
+ * so browsers can cache it forever and a new upload simply produces a new URL.
+ * With voting.media.store=filesystem the bytes live in FileBlobStore and the LOB columns stay empty;
+ * images stored before the switch are read from their LOBs until migrateToBlobStore() moves them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MediaServiceImpl {
+
+    public static final MediaType SVG = MediaType.parseMediaType("image/svg+xml");
+
+    private final CandidateRepository candidateRepo;
+    private final PartyRepository partyRepo;
+    private final ImageRenditionRepository renditionRepo;
+    private final ObjectProvider<FileBlobStore> blobStore;  // present only with the filesystem media store
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // ------------------ Versioned URLs for DTOs ------------------
+    public String candidatePhotoUrl(Candidate candidate) {
+        return candidate.getPhotoHash() == null ? null
+                : "/api/media/candidates/" + candidate.getId() + "/photo?v=" + candidate.getPhotoHash();
+    }
+
+    public String partyLogoUrl(Party party) {
+        return party.getLogoHash() == null ? null
+                : "/api/media/parties/" + party.getId() + "/logo?v=" + party.getLogoHash();
+    }
+
+    // ------------------ Reads for MediaController ------------------
+    public String candidatePhotoHash(Long candidateId) {
+        return candidateRepo.findPhotoHashById(candidateId)
+                .orElseThrow(() -> new ResourceNotFoundException("Photo not found"));
+    }
+
+    public byte[] candidatePhoto(Long candidateId) {
+        return candidateRepo.findPhotoById(candidateId)
+                .or(() -> candidateRepo.findPhotoHashById(candidateId).flatMap(this::blobFile).map(this::readBlob))
+                .orElseThrow(() -> new ResourceNotFoundException("Photo not found"));
+    }
+
+    public String partyLogoHash(Long partyId) {
+        return partyRepo.findLogoHashById(partyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Logo not found"));
+    }
+
+    public byte[] partyLogo(Long partyId) {
+        return partyRepo.findLogoById(partyId)
+                .or(() -> partyRepo.findLogoHashById(partyId).flatMap(this::blobFile).map(this::readBlob))
+                .orElseThrow(() -> new ResourceNotFoundException("Logo not found"));
+    }
+
+    // ------------------ Streamed uploads (PUT /api/candidates/{id}/photo, /api/parties/{id}/logo) ------------------
+    // The container has already spooled the part to disk; it is read from there in buffer-sized chunks.
+    // Returns the new hash; the image is left PENDING for ImageProcessingServiceImpl.
+    public String replaceCandidatePhoto(Long candidateId, MultipartFile upload) {
+        return replaceImage(Candidate.class, "candidates", "photo", candidateId, upload);
+    }
+
+    public String replacePartyLogo(Long partyId, MultipartFile upload) {
+        return replaceImage(Party.class, "parties", "logo", partyId, upload);
+    }
+
+    private String replaceImage(Class<?> owner, String table, String column, Long id, MultipartFile upload) {
+        if (upload.isEmpty()) {
+            throw new RuntimeException("Uploaded image is empty");
+        }
+        try (InputStream in = upload.getInputStream()) {
+            requireRasterImage(in.readNBytes(256));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read uploaded image", e);
+        }
+        String sql = "UPDATE " + table + " SET " + column + " = ?, " + column + "_hash = ?, "
+                + column + "_status = ?, updated_at = ? WHERE id = ?";
+        try {
+            FileBlobStore store = blobStore.getIfAvailable();
+            if (store != null) {
+                String hash;
+                try (InputStream in = upload.getInputStream()) {
+                    hash = store.put(in);
+                }
+                jdbcTemplate.update(sql, null, hash, ImageStatus.PENDING.name(), LocalDateTime.now(), id);
+                evict(owner, id);
+                return hash;
+            }
+            // Database store: one pass to hash, a second one streamed into the LOB column
+            String hash;
+            try (InputStream in = upload.getInputStream()) {
+                hash = hash(in);
+            }
+            try (InputStream in = upload.getInputStream()) {
+                jdbcTemplate.update(sql, ps -> {
+                    ps.setBinaryStream(1, in, upload.getSize());
+                    ps.setString(2, hash);
+                    ps.setString(3, ImageStatus.PENDING.name());
+                    ps.setObject(4, LocalDateTime.now());
+                    ps.setLong(5, id);
+                });
+            }
+            evict(owner, id);
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read uploaded image", e);
+        }
+    }
+
+    // The update bypassed Hibernate, so its second-level cache entry for the row is dropped by hand
+    private void evict(Class<?> owner, Long id) {
+        entityManagerFactory.getCache().evict(owner, id);
+    }
+
+    // ------------------ Filesystem media store ------------------
+    // Writes the image to the file store when it is enabled; returns what the LOB column should hold
+    public byte[] toLobColumn(byte[] data) {
+        if (data != null && data.length > 0) {
+            requireRasterImage(data);
+        }
+        FileBlobStore store = blobStore.getIfAvailable();
+        if (store == null || data == null || data.length == 0) {
+            return data;
+        }
+        store.put(data);
+        return null;
+    }
+
+    public Optional<Path> blobFile(String hash) {
+        FileBlobStore store = blobStore.getIfAvailable();
+        return store == null ? Optional.empty() : store.find(hash);
+    }
+
+    public void sendBlob(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        blobStore.getObject().send(file, request, response);
+    }
+
+    public byte[] readBlob(Path file) {
+        return blobStore.getObject().read(file);
+    }
+
+    // ------------------ Renditions (see ImageProcessingServiceImpl) ------------------
+    public ImageSize parseSize(String size) {
+        if (size == null) {
+            return null;
+        }
+        try {
+            return ImageSize.valueOf(size.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown image size: " + size);
+        }
+    }
+
+    public boolean hasRendition(String hash, ImageSize size) {
+        return renditionRepo.existsBySourceHashAndSize(hash, size);
+    }
+
+    public ImageRendition rendition(String hash, ImageSize size) {
+        return renditionRepo.findBySourceHashAndSize(hash, size)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
+    }
+
+    // ------------------ Hashing and content type ------------------
+    // Null for a missing image, so hash and image are always cleared together
+    public String hash(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String hash(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Uploads arrive as bare bytes with no declared type, so it is read from the file signature
+    public MediaType contentTypeOf(byte[] data) {
+        if (startsWith(data, 0, 0x89, 'P', 'N', 'G')) {
+            return MediaType.IMAGE_PNG;
+        }
+        if (startsWith(data, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (startsWith(data, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF;
+        }
+        if (startsWith(data, 0, 'R', 'I', 'F', 'F') && startsWith(data, 8, 'W', 'E', 'B', 'P')) {
+            return MediaType.parseMediaType("image/webp");
+        }
+        if (startsWith(data, 0, 'B', 'M')) {
+            return MediaType.parseMediaType("image/bmp");
+        }
+        String head = new String(data, 0, Math.min(data.length, 256), StandardCharsets.UTF_8).stripLeading();
+        if (head.startsWith("<svg") || (head.startsWith("<?xml") && head.contains("<svg"))) {
+            return SVG;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    // SVG can carry script, which would run on the API origin when the image is opened directly
+    private void requireRasterImage(byte[] head) {
+        if (SVG.equalsTypeAndSubtype(contentTypeOf(head))) {
+            throw new RuntimeException("SVG images are not accepted; upload a PNG, JPEG, GIF, WebP or BMP image");
+        }
+    }
+
+    public MediaType contentTypeOf(Path file) {
+        return contentTypeOf(blobStore.getObject().readHead(file, 256));
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ------------------ Migration: move LOBs to the filesystem media store ------------------
+    // One image in memory at a time; safe to re-run, rows already moved are skipped
+    public MediaMigrationDTO migrateToBlobStore() {
+        FileBlobStore store = blobStore.getIfAvailable();
+        if (store == null) {
+            throw new RuntimeException("Filesystem media store is not enabled (voting.media.store=filesystem)");
+        }
+        int photos = 0;
+        int logos = 0;
+        int renditions = 0;
+        long bytes = 0;
+
+        for (Long id : candidateRepo.findIdsWithPhotoInDatabase()) {
+            byte[] photo = candidateRepo.findPhotoById(id).orElse(null);
+            if (photo != null && candidateRepo.clearPhoto(id, store.put(photo), LocalDateTime.now()) > 0) {
+                photos++;
+                bytes += photo.length;
+            }
+        }
+        for (Long id : partyRepo.findIdsWithLogoInDatabase()) {
+            byte[] logo = partyRepo.findLogoById(id).orElse(null);
+            if (logo != null && partyRepo.clearLogo(id, store.put(logo), LocalDateTime.now()) > 0) {
+                logos++;
+                bytes += logo.length;
+            }
+        }
+        for (Long id : renditionRepo.findIdsWithDataInDatabase()) {
+            byte[] data = renditionRepo.findDataById(id).orElse(null);
+            if (data != null && renditionRepo.clearData(id, store.put(data)) > 0) {
+                renditions++;
+                bytes += data.length;
+            }
+        }
+        log.info("Moved {} candidate photos, {} party logos and {} renditions ({} bytes) to the media store",
+                photos, logos, renditions, bytes);
+        return MediaMigrationDTO.builder()
+                .candidatePhotos(photos)
+                .partyLogos(logos)
+                .renditions(renditions)
+                .bytesMoved(bytes)
+                .build();
+    }
+
+    // ------------------ Startup: hash images stored before hashes existed ------------------
+    @Order(0) // before ImageProcessingServiceImpl picks up images without renditions
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillHashes() {
+        List<Long> candidateIds = candidateRepo.findIdsWithUnhashedPhoto();
+        for (Long id : candidateIds) {
+            candidateRepo.findPhotoById(id).ifPresent(photo -> candidateRepo.updatePhotoHash(id, hash(photo), LocalDateTime.now()));
+        }
+        List<Long> partyIds = partyRepo.findIdsWithUnhashedLogo();
+        for (Long id : partyIds) {
+            partyRepo.findLogoById(id).ifPresent(logo -> partyRepo.updateLogoHash(id, hash(logo), LocalDateTime.now()));
+        }
+        if (!candidateIds.isEmpty() || !partyIds.isEmpty()) {
+            log.info("Hashed {} candidate photos and {} party logos", candidateIds.size(), partyIds.size());
+        }
+    }
+}
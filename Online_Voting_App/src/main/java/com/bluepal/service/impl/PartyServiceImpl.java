@@ -1,27 +1,57 @@
 package com.bluepal.service.impl;
 
+import com.bluepal.cache.ActiveElectionIndex;
+import com.bluepal.cache.BallotCache;
+import com.bluepal.dto.FieldSelection;
 import com.bluepal.dto.PartyRequestDTO;
 import com.bluepal.dto.PartyResponseDTO;
+import com.bluepal.entity.ImageStatus;
 import com.bluepal.entity.Party;
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.ingest.VoteIngestGate;
+import com.bluepal.repository.FetchPlanRepository;
 import com.bluepal.repository.PartyRepository;
 import com.bluepal.service.PartyService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PartyServiceImpl implements PartyService{
 
     private final PartyRepository partyRepo;
+    private final MediaServiceImpl mediaService;
+    private final ImageProcessingServiceImpl imageProcessing;
+    private final CandidateServiceImpl candidateService;
+    private final FetchPlanRepository fetchPlanRepo;
+    private final BallotCache ballotCache;
+    private final ActiveElectionIndex activeElections;
+    private final VoteIngestGate ingestGate;
+
+    // Nested objects a party can return; none unless asked for with ?expand=
+    private static final Set<String> EXPANSIONS = Set.of("candidates", "candidates.election");
+    private static final FieldSelection DEFAULT_SELECTION = FieldSelection.parse(null, null, EXPANSIONS, Set.of());
 
     // Save Party
     public Party saveParty(Party party) {
     	System.out.println("ps1");
-        return partyRepo.save(party);
+        byte[] logo = party.getLogo();
+        String logoHash = mediaService.hash(logo);
+        party.setLogo(mediaService.toLobColumn(logo));
+        party.setLogoHash(logoHash);
+        party.setLogoStatus(logoHash != null ? ImageStatus.PENDING : null);
+        Party saved = partyRepo.save(party);
+        if (logoHash != null) {
+            imageProcessing.processPartyLogo(saved.getId(), logoHash, logo);
+        }
+        return saved;
     }
 
     // Find by ID
@@ -41,18 +71,48 @@ public class PartyServiceImpl implements PartyService{
 
     // Delete Party
     public void deleteParty(Long id) {
-        partyRepo.deleteById(id);
+        ingestGate.exclusive(() -> {
+            partyRepo.deleteById(id); // takes its candidates with it
+            activeElections.allCandidatesChanged();
+        });
+        ballotCache.invalidateAll();
     }
 
     // Map Party → DTO (used by controller)
     public PartyResponseDTO mapToDTO(Party party) {
+        return mapToDTO(party, DEFAULT_SELECTION);
+    }
+
+    public PartyResponseDTO mapToDTO(Party party, FieldSelection selection) {
         return PartyResponseDTO.builder()
                 .id(party.getId())
-                .name(party.getName())
-                .description(party.getDescription())
-                .logo(party.getLogo())
+                .name(selection.includes("name") ? party.getName() : null)
+                .description(selection.includes("description") ? party.getDescription() : null)
+                .logoUrl(selection.includes("logoUrl") ? mediaService.partyLogoUrl(party) : null)
+                .logoStatus(selection.includes("logoStatus") && party.getLogoStatus() != null
+                        ? party.getLogoStatus().name() : null)
+                .candidates(!selection.expands("candidates") ? null : party.getCandidates().stream()
+                        .map(candidate -> candidateService.mapToDTO(candidate, selection.nested("candidates")))
+                        .collect(Collectors.toList()))
                 .build();
     }
+
+    // ------------------ Reads with ?fields= / ?expand= ------------------
+    public FieldSelection selection(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, EXPANSIONS, Set.of());
+    }
+
+    public List<PartyResponseDTO> getParties(FieldSelection selection) {
+        return fetchPlanRepo.findParties(selection).stream()
+                .map(party -> mapToDTO(party, selection))
+                .collect(Collectors.toList());
+    }
+
+    public PartyResponseDTO getParty(Long id, FieldSelection selection) {
+        return fetchPlanRepo.findParty(id, selection)
+                .map(party -> mapToDTO(party, selection))
+                .orElseThrow(() -> new ResourceNotFoundException("Party not found"));
+    }
     
     public PartyResponseDTO updateParty(Long id, PartyRequestDTO dto) {
         Party existingParty = partyRepo.findById(id)
@@ -66,13 +126,33 @@ public class PartyServiceImpl implements PartyService{
             existingParty.setDescription(dto.getDescription());
         }
 
+        boolean logoChanged = false;
         if (dto.getLogo() != null && dto.getLogo().length > 0) {
-            existingParty.setLogo(dto.getLogo());
+            existingParty.setLogo(mediaService.toLobColumn(dto.getLogo()));
+            existingParty.setLogoHash(mediaService.hash(dto.getLogo()));
+            existingParty.setLogoStatus(ImageStatus.PENDING);
+            logoChanged = true;
         }
 
         existingParty = partyRepo.save(existingParty);
+        ballotCache.invalidateAll();
+        if (logoChanged) {
+            imageProcessing.processPartyLogo(existingParty.getId(), existingParty.getLogoHash(), dto.getLogo());
+        }
 
         return mapToDTO(existingParty);
     }
 
+    // Logo streamed from a multipart upload instead of base64 inside the JSON body
+    public PartyResponseDTO updateLogo(Long id, MultipartFile logo) {
+        if (!partyRepo.existsById(id)) {
+            throw new RuntimeException("Party not found");
+        }
+        String logoHash = mediaService.replacePartyLogo(id, logo);
+        ballotCache.invalidateAll();
+        imageProcessing.processPartyLogo(id, logoHash);
+        return mapToDTO(partyRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Party not found")));
+    }
+
 }
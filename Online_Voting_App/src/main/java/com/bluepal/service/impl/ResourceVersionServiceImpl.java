@@ -0,0 +1,73 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.exception.ResourceNotFoundException;
+import com.bluepal.repository.ResourceVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ETag / Last-Modified for the polled catalog reads. The ETag hashes the version stamp together with
+ * the request URI and query parameters (fields, expand, page, ...), so each variant of a list validates on its own.
+ * The stamp is read before the data: a write in between leaves the client an older ETag, never a newer one.
+ * Last-Modified only sees writes, not deletions; If-None-Match (which browsers send with it) takes precedence.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionServiceImpl {
+
+    // Cached by the browser but revalidated on every use
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ResourceVersionRepository versionRepo;
+
+    // ------------------ /api/elections, /api/parties ------------------
+    public boolean catalogNotModified(WebRequest request) {
+        return checkNotModified(request, versionRepo.catalogStamp());
+    }
+
+    // ------------------ /api/candidates/election/{id} (404 for an unknown election) ------------------
+    public boolean electionCandidatesNotModified(Long electionId, WebRequest request) {
+        Map<String, Object> stamp = versionRepo.electionCandidatesStamp(electionId);
+        if (((Number) stamp.get("election_exists")).longValue() == 0) {
+            throw new ResourceNotFoundException("Election not found");
+        }
+        return checkNotModified(request, stamp);
+    }
+
+    // ------------------ /api/allowed-voters/voter/{voterId} ------------------
+    public boolean voterElectionsNotModified(String voterId, WebRequest request) {
+        return checkNotModified(request, versionRepo.voterElectionsStamp(voterId));
+    }
+
+    // Sets ETag and Last-Modified on the response; true if the client's copy is current (answer 304)
+    private boolean checkNotModified(WebRequest request, Map<String, Object> stamp) {
+        StringBuilder key = new StringBuilder(request.getDescription(false)).append('|').append(stamp);
+        new TreeMap<>(request.getParameterMap())
+                .forEach((name, values) -> key.append('|').append(name).append('=').append(String.join(",", values)));
+        String etag = "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return request.checkNotModified(etag, lastModified(stamp));
+    }
+
+    // Latest updated_at in the stamp, -1 (no Last-Modified) if none is set
+    private static long lastModified(Map<String, Object> stamp) {
+        long latest = -1;
+        for (Object value : stamp.values()) {
+            if (value instanceof Timestamp timestamp) {
+                latest = Math.max(latest, timestamp.getTime());
+            } else if (value instanceof LocalDateTime dateTime) {
+                latest = Math.max(latest, dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,151 @@
+package com.bluepal.service.impl;
+
+import com.bluepal.dto.ElectionResultDTO;
+import com.bluepal.dto.ResultSnapshotDTO;
+import com.bluepal.entity.Election;
+import com.bluepal.entity.ElectionResultSnapshot;
+import com.bluepal.ingest.VoteJournal;
+import com.bluepal.lifecycle.ElectionLifecycleListener;
+import com.bluepal.repository.ElectionRepository;
+import com.bluepal.repository.ElectionResultSnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Final results, computed once when an election closes and then never recomputed on read.
+ * The JSON is serialized at freeze time, persisted in election_result_snapshots and kept in memory
+ * as bytes, so the voter results endpoint just writes the cached array out.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResultSnapshotServiceImpl implements ElectionLifecycleListener {
+
+    private static final Duration JOURNAL_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    // 1: images as /api/media URLs (0 inlined them as base64)
+    private static final int PAYLOAD_FORMAT = 1;
+
+    private final ElectionRepository electionRepo;
+    private final ElectionResultSnapshotRepository snapshotRepo;
+    private final ElectionResultsServiceImpl resultsService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<VoteJournal> voteJournal;
+
+    private final Map<Long, ElectionResultSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // ------------------ Voter read path ------------------
+    public ElectionResultSnapshot getSnapshot(Long electionId) {
+        ElectionResultSnapshot snapshot = snapshots.get(electionId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        Election election = electionRepo.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+        if (LocalDateTime.now().isBefore(election.getEndDate())) {
+            throw new RuntimeException("Results not available until the election ends");
+        }
+
+        // Loaded from the table after a restart, or frozen now if the close hook never ran (e.g. older elections).
+        // Concurrent first readers are collapsed by ResultsRequestCoalescer; the query runs outside any
+        // map lock so it can't pin a virtual thread.
+        ElectionResultSnapshot loaded = snapshotRepo.findById(electionId)
+                .filter(stored -> stored.getFormat() == PAYLOAD_FORMAT)
+                .orElseGet(() -> compute(election));
+        ElectionResultSnapshot existing = snapshots.putIfAbsent(electionId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // ------------------ Admin correction ------------------
+    public ResultSnapshotDTO recompute(Long electionId) {
+        Election election = electionRepo.findById(electionId)
+                .orElseThrow(() -> new RuntimeException("Election not found"));
+        if (LocalDateTime.now().isBefore(election.getEndDate())) {
+            throw new RuntimeException("Election has not ended yet");
+        }
+
+        ElectionResultSnapshot snapshot = compute(election);
+        snapshots.put(electionId, snapshot);
+        return ResultSnapshotDTO.builder()
+                .electionId(snapshot.getElectionId())
+                .etag(snapshot.getEtag())
+                .totalVotes(snapshot.getTotalVotes())
+                .sizeBytes(snapshot.getPayload().length)
+                .computedAt(snapshot.getComputedAt())
+                .build();
+    }
+
+    // ------------------ Lifecycle hooks ------------------
+    @Override
+    public void electionClosed(Election election) {
+        if (LocalDateTime.now().isBefore(election.getEndDate())) {
+            return; // closed early by an admin; frozen on first read once the end date passes
+        }
+        snapshots.put(election.getId(), compute(election));
+    }
+
+    @Override
+    public void electionOpened(Election election) {
+        discard(election.getId()); // reopened by an admin; results are no longer final
+    }
+
+    @Override
+    public void electionDeleted(Long electionId) {
+        discard(electionId);
+    }
+
+    private void discard(Long electionId) {
+        snapshots.remove(electionId);
+        if (snapshotRepo.existsById(electionId)) {
+            snapshotRepo.deleteById(electionId);
+        }
+    }
+
+    // ------------------ Freeze ------------------
+    private ElectionResultSnapshot compute(Election election) {
+        VoteJournal journal = voteJournal.getIfAvailable();
+        if (journal != null && !journal.awaitApplied(JOURNAL_DRAIN_TIMEOUT)) {
+            log.warn("Election {} results frozen before the vote journal drained; recompute once it has", election.getId());
+        }
+
+        ElectionResultDTO results = resultsService.getElectionResults(election.getId());
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(results);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize election results", e);
+        }
+
+        ElectionResultSnapshot snapshot = snapshotRepo.save(ElectionResultSnapshot.builder()
+                .electionId(election.getId())
+                .payload(payload)
+                .etag(sha256(payload))
+                .totalVotes(results.getTotalVotes())
+                .format(PAYLOAD_FORMAT)
+                .computedAt(LocalDateTime.now())
+                .build());
+        log.info("Election {} results frozen ({} votes, {} bytes)", election.getId(), results.getTotalVotes(), payload.length);
+        return snapshot;
+    }
+
+    private static String sha256(byte[] payload) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.bluepal.service.impl;
 
+import com.bluepal.cache.EligibilityIndex;
 import com.bluepal.dto.UserRequestDTO;
 import com.bluepal.dto.UserResponseDTO;
+import com.bluepal.entity.AllowedVoter;
 import com.bluepal.entity.User;
 import com.bluepal.entity.Role;
 import com.bluepal.repository.AllowedVoterRepository;
 import com.bluepal.repository.UserRepository;
+import com.bluepal.security.TokenVersionRegistry;
+import com.bluepal.ingest.VoteIngestGate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +25,9 @@ public class UserServiceImpl {
     private final UserRepository userRepo;
     private final PasswordEncoder passwordEncoder;
     private final AllowedVoterRepository allowedVoterRepo;
+    private final EligibilityIndex eligibilityIndex;
+    private final TokenVersionRegistry tokenVersions;
+    private final VoteIngestGate ingestGate;
 
 //    public UserResponseDTO createUser(UserRequestDTO dto) {
 //
@@ -53,6 +60,7 @@ public class UserServiceImpl {
     
     public UserResponseDTO createUser(UserRequestDTO dto) {
         Role role = Role.valueOf(dto.getRole());
+        List<AllowedVoter> rollEntries = List.of();
 
         // ✅ Check for duplicate username
 //        if (userRepo.findByUsername(dto.getUsername()).isPresent()) {
@@ -76,8 +84,8 @@ public class UserServiceImpl {
             }
 
             // Check if voterId is allowed
-            boolean allowed = !allowedVoterRepo.findByVoterId(dto.getVoterId()).isEmpty();
-            if (!allowed) {
+            rollEntries = allowedVoterRepo.findByVoterId(dto.getVoterId());
+            if (rollEntries.isEmpty()) {
                 throw new RuntimeException("This Voter ID is not allowed to register");
             }
         }
@@ -92,6 +100,7 @@ public class UserServiceImpl {
                 .build();
 
         user = userRepo.save(user);
+        eligibilityIndex.registered(user.getId(), rollEntries);
         return mapToDTO(user);
     }
 
@@ -127,8 +136,13 @@ public class UserServiceImpl {
         return userRepo.findByRole(role);
     }
 
+    // The voter's tokens are revoked before other votes are let in again
     public void deleteUser(Long id) {
-        userRepo.deleteById(id);
+        ingestGate.exclusive(() -> {
+            userRepo.deleteById(id);
+            eligibilityIndex.evictAll();
+            tokenVersions.deleted(id);
+        });
     }
     
     public Optional<User> findByEmail(String email) {
@@ -138,7 +152,11 @@ public class UserServiceImpl {
     public void deleteUserByEmail(String email) {
         User user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        userRepo.delete(user);
+        ingestGate.exclusive(() -> {
+            userRepo.delete(user);
+            eligibilityIndex.evictAll();
+            tokenVersions.deleted(user.getId());
+        });
     }
     
     public UserResponseDTO updateUser(String email, UserRequestDTO dto) {
@@ -147,31 +165,51 @@ public class UserServiceImpl {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Update fields if provided
+        boolean credentialsChanged = false;
         if (dto.getUsername() != null && !dto.getUsername().isEmpty()) {
             existingUser.setUsername(dto.getUsername());
         }
 
         if (dto.getEmail() != null && !dto.getEmail().isEmpty()) {
+            credentialsChanged |= !dto.getEmail().equals(existingUser.getEmail());
             existingUser.setEmail(dto.getEmail());
         }
 
         if (dto.getPassword() != null && !dto.getPassword().isEmpty()) {
+            credentialsChanged = true;
             existingUser.setPassword(passwordEncoder.encode(dto.getPassword()));
         }
 
         if (dto.getRole() != null && !dto.getRole().isEmpty()) {
-            existingUser.setRole(Role.valueOf(dto.getRole()));
+            Role role = Role.valueOf(dto.getRole());
+            credentialsChanged |= role != existingUser.getRole();
+            existingUser.setRole(role);
         }
 
         // Voter-specific updates
+        boolean voterIdChanged = false;
         if (existingUser.getRole() == Role.VOTER) {
             if (dto.getVoterId() != null && !dto.getVoterId().isEmpty()) {
+                voterIdChanged = !dto.getVoterId().equals(existingUser.getVoterId());
                 existingUser.setVoterId(dto.getVoterId());
             }
         }
 
+        // Tokens carry email, role and voterId, so any change to those (or the password) revokes them
+        if (credentialsChanged || voterIdChanged) {
+            existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
+        }
+
         // Save updated user
         existingUser = userRepo.save(existingUser);
+        if (credentialsChanged || voterIdChanged) {
+            tokenVersions.updated(existingUser.getId(), existingUser.getTokenVersion());
+        }
+
+        // Eligibility rolls are keyed by user id, so a new voterId invalidates them
+        if (voterIdChanged) {
+            eligibilityIndex.evictAll();
+        }
 
         return mapToDTO(existingUser);
     }
@@ -1,55 +1,213 @@
 package com.bluepal.service.impl;
 
+import com.bluepal.cache.ActiveElectionIndex;
+import com.bluepal.cache.EligibilityIndex;
+import com.bluepal.cache.VoteTallyRegistry;
+import com.bluepal.cache.VotedRegistry;
 import com.bluepal.dto.*;
 import com.bluepal.entity.*;
+import com.bluepal.ingest.VoteJournal;
+import com.bluepal.ingest.VoteRejectionListener;
+import com.bluepal.ingest.VoteIngestGate;
 import com.bluepal.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class VoteServiceImpl {
+public class VoteServiceImpl implements VoteRejectionListener {
 
     private final VoteRepository voteRepo;
     private final UserRepository userRepo;
-    private final CandidateRepository candidateRepo;
-    private final ElectionRepository electionRepo;
-    private final AllowedVoterRepository allowedVoterRepo;
+    private final EligibilityIndex eligibilityIndex;
+    private final ActiveElectionIndex activeElections;
+    private final VoteTallyRegistry tallyRegistry;
+    private final VotedRegistry votedRegistry;
+    private final VoteCommitRepository voteCommitRepo;
+    private final MediaServiceImpl mediaService;
+    private final FetchPlanRepository fetchPlanRepo;
+    private final RejectedVoteRepository rejectedVoteRepo;
+    private final ObjectProvider<VoteJournal> voteJournal;  // present only in journal ingest mode
+    private final VoteIngestGate ingestGate;
 
     // ------------------ Cast a vote ------------------
+    // One transaction: a voter id lookup, then a single INSERT ... SELECT that re-checks every rule.
+    // The in-memory roll and voted registry reject most bad requests before any write.
+    // In journal ingest mode VoteController uses castJournaledVote instead.
+    @Transactional
     public VoteResponseDTO castVote(VoteRequestDTO dto) {
+        return castVote(dto, null);
+    }
 
-        User voter = userRepo.findByVoterId(dto.getVoterId())
-                .orElseThrow(() -> new RuntimeException("Voter not found"));
+    // voterUserId: the voter's users.id when already known (from the token), otherwise null
+    @Transactional
+    public VoteResponseDTO castVote(VoteRequestDTO dto, Long knownVoterUserId) {
+        Long electionId = dto.getElectionId();
+        Long candidateId = dto.getCandidateId();
 
-        Election election = electionRepo.findById(dto.getElectionId())
-                .orElseThrow(() -> new RuntimeException("Election not found"));
+        // Closed or unknown elections are turned away without touching the vote tables
+        if (!activeElections.isOpen(electionId, LocalDateTime.now())) {
+            rejectionReason(dto, LocalDateTime.now()).ifPresent(reason -> {
+                throw new RuntimeException(reason);
+            });
+        }
 
-        Candidate candidate = candidateRepo.findById(dto.getCandidateId())
-                .orElseThrow(() -> new RuntimeException("Candidate not found"));
+        Long voterUserId = knownVoterUserId != null ? knownVoterUserId : userRepo.findIdByVoterId(dto.getVoterId())
+                .orElseThrow(() -> new RuntimeException("Voter not found"));
 
-        // Check if voter is allowed
-        allowedVoterRepo.findByVoterIdAndElection(voter.getVoterId(), election)
-                .orElseThrow(() -> new RuntimeException("Voter not allowed for this election"));
+        // Check if voter is allowed (in-memory roll, no query)
+        if (!eligibilityIndex.isAllowed(electionId, voterUserId)) {
+            rejectionReason(dto, LocalDateTime.now()).ifPresent(reason -> {
+                throw new RuntimeException(reason);
+            });
+            eligibilityIndex.evict(electionId); // roll was stale (e.g. voter added on another node)
+        }
 
-        // Check if already voted
-        if (voteRepo.findByVoterAndElection(voter, election).isPresent()) {
+        // Check if already voted (in-memory claim; the unique constraint is the final guard)
+        if (!votedRegistry.claim(electionId, voterUserId)) {
             throw new RuntimeException("Voter has already voted");
         }
+        afterCompletion(electionId, voterUserId, candidateId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Long voteId;
+        try {
+            voteId = voteCommitRepo.insertIfValid(voterUserId, dto.getVoterId(), candidateId, electionId, now)
+                    .orElseThrow(() -> new RuntimeException(rejectionReason(dto, now)
+                            .orElse("Vote could not be recorded, please retry")));
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateVote(e)) {
+                throw new RuntimeException("Voter has already voted");
+            }
+            throw e;
+        }
+
+        return castVoteResponse(voteId, voterUserId, dto, now);
+    }
 
-        Vote vote = Vote.builder()
-                .voter(voter)
-                .candidate(candidate)
-                .election(election)
+    private VoteResponseDTO castVoteResponse(Long voteId, Long voterUserId, VoteRequestDTO dto, LocalDateTime now) {
+        return VoteResponseDTO.builder()
+                .id(voteId)
+                .voter(UserResponseDTO.builder().id(voterUserId).voterId(dto.getVoterId()).build())
+                .candidate(CandidateResponseDTO.builder().id(dto.getCandidateId()).build())
+                .election(ElectionResponseDTO.builder().id(dto.getElectionId()).build())
+                .castAt(now)
                 .build();
+    }
+
+    private Optional<String> rejectionReason(VoteRequestDTO dto, LocalDateTime now) {
+        return voteCommitRepo.findRejectionReason(dto.getVoterId(), dto.getCandidateId(), dto.getElectionId(), now);
+    }
 
-        vote = voteRepo.save(vote);
+    // Count the vote once committed; give the voter's claim back if it was not stored.
+    // The tally's update stamp is held from here, before the insert, until the vote is counted.
+    private void afterCompletion(Long electionId, Long voterUserId, Long candidateId) {
+        long stamp = tallyRegistry.beginUpdate(electionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        tallyRegistry.increment(electionId, candidateId);
+                    } else {
+                        votedRegistry.release(electionId, voterUserId);
+                    }
+                } finally {
+                    tallyRegistry.endUpdate(electionId, stamp);
+                }
+            }
+        });
+    }
 
-        return mapToDTO(vote);
+    // ------------------ Write-behind mode: ack once fsynced to the journal ------------------
+    public boolean isJournaled() {
+        return voteJournal.getIfAvailable() != null;
+    }
+
+    // No transaction and no database work (beyond the voter id lookup when it isn't known): every rule is
+    // checked against the in-memory indexes, and the returned future completes once the vote is fsynced,
+    // counting it in the tally, or fails and gives the voter's claim back.
+    public CompletableFuture<VoteResponseDTO> castJournaledVote(VoteRequestDTO dto, Long knownVoterUserId) {
+        VoteJournal journal = voteJournal.getObject();
+        Long electionId = dto.getElectionId();
+        Long candidateId = dto.getCandidateId();
+        Long voterUserId = knownVoterUserId != null ? knownVoterUserId : userRepo.findIdByVoterId(dto.getVoterId())
+                .orElseThrow(() -> new RuntimeException("Voter not found"));
+        LocalDateTime now = LocalDateTime.now();
+
+        // Validated and appended with no delete of a row the vote references in between (see VoteIngestGate);
+        // the tally's update stamp is held until the acknowledged vote is counted
+        long stamp = tallyRegistry.beginUpdate(electionId);
+        CompletableFuture<Void> appended;
+        try {
+            appended = ingestGate.admit(() -> {
+                if (!activeElections.isOpen(electionId, now)) {
+                    throw new RuntimeException("Election is not open for voting");
+                }
+                if (!activeElections.hasCandidate(electionId, candidateId)) {
+                    throw new RuntimeException("Candidate does not belong to this election");
+                }
+                if (!eligibilityIndex.isAllowed(electionId, voterUserId)) {
+                    throw new RuntimeException("Voter not allowed for this election");
+                }
+                if (!votedRegistry.claim(electionId, voterUserId)) {
+                    throw new RuntimeException("Voter has already voted");
+                }
+                try {
+                    return journal.append(voterUserId, candidateId, electionId, now);
+                } catch (RuntimeException e) {
+                    votedRegistry.release(electionId, voterUserId);
+                    throw e;
+                }
+            });
+        } catch (RuntimeException e) {
+            tallyRegistry.endUpdate(electionId, stamp);
+            throw e;
+        }
+
+        return appended.handle((ignored, error) -> {
+            try {
+                if (error != null) {
+                    votedRegistry.release(electionId, voterUserId);
+                    throw new RuntimeException("Vote could not be recorded, please retry", error);
+                }
+                tallyRegistry.increment(electionId, candidateId);
+                return castVoteResponse(null, voterUserId, dto, now);
+            } finally {
+                tallyRegistry.endUpdate(electionId, stamp);
+            }
+        });
+    }
+
+    // The journal could not store an acknowledged vote (kept in rejected_votes): it no longer counts,
+    // and the voter may vote again. Not under the tally's update stamp: seeding waits for this thread.
+    @Override
+    public void voteRejected(Long voterUserId, Long candidateId, Long electionId) {
+        tallyRegistry.decrement(electionId, candidateId);
+        votedRegistry.release(electionId, voterUserId);
+    }
+
+    // Unique key violation on (voter_id, election_id): MySQL error 1062, SQLState 23505 elsewhere
+    private boolean isDuplicateVote(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql
+                    && (sql.getErrorCode() == 1062 || "23505".equals(sql.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // ------------------ Map Vote entity → DTO ------------------
@@ -77,12 +235,12 @@ public class VoteServiceImpl {
         return CandidateResponseDTO.builder()
                 .id(candidate.getId())
                 .name(candidate.getName())
-                .photo(candidate.getPhoto())
+                .photoUrl(mediaService.candidatePhotoUrl(candidate))
                 .bio(candidate.getBio())
                 .party(PartyResponseDTO.builder()
                         .id(candidate.getParty().getId())
                         .name(candidate.getParty().getName())
-                        .logo(candidate.getParty().getLogo())
+                        .logoUrl(mediaService.partyLogoUrl(candidate.getParty()))
                         .description(candidate.getParty().getDescription())
                         .build())
                 .election(mapElectionToDTO(candidate.getElection()))
@@ -135,13 +293,34 @@ public class VoteServiceImpl {
     }
 
     public void deleteVote(Long id) {
-        if (!voteRepo.existsById(id)) {
-            throw new RuntimeException("Vote not found");
+        Vote vote = voteRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Vote not found"));
+        Long electionId = vote.getElection().getId();
+        long stamp = tallyRegistry.beginUpdate(electionId);
+        try {
+            voteRepo.delete(vote);
+            tallyRegistry.decrement(electionId, vote.getCandidate().getId());
+        } finally {
+            tallyRegistry.endUpdate(electionId, stamp);
         }
-        voteRepo.deleteById(id);
+        votedRegistry.release(electionId, vote.getVoter().getId());
     }
 
     public List<Vote> findAllVotes() {
         return voteRepo.findAll();
     }
+
+    // Loads only the associations the selection expands
+    public List<Vote> findVotes(FieldSelection selection) {
+        return fetchPlanRepo.findVotes(selection);
+    }
+
+    public Optional<Vote> findVote(Long id, FieldSelection selection) {
+        return fetchPlanRepo.findVote(id, selection);
+    }
+
+    // Journaled votes the votes table refused (journal ingest mode), newest first
+    public List<RejectedVote> findRejectedVotes() {
+        return rejectedVoteRepo.findAllByOrderByIdDesc();
+    }
 }
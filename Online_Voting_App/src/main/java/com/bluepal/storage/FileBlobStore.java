@@ -0,0 +1,214 @@
+package com.bluepal.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Image bytes kept as files instead of MySQL LOBs (voting.media.store=filesystem).
+ * Each file is named by the SHA-256 of its content (ab/cd/abcd...), so identical images are stored once
+ * and a file never changes after it is written; the candidates/parties tables keep only the hash.
+ * Files are sent with Tomcat's sendfile when the connector supports it, so image bytes never enter the
+ * Java heap; otherwise FileChannel.transferTo streams them in small chunks without loading the whole file.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "voting.media.store", havingValue = "filesystem")
+public class FileBlobStore {
+
+    // Request attributes of Tomcat's sendfile support (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path directory;
+
+    public FileBlobStore(@Value("${voting.media.blob-dir:./data/blobs}") String directory) throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        Files.createDirectories(this.directory);
+        log.info("Storing images under {}", this.directory);
+    }
+
+    // ------------------ Write (idempotent: an existing blob is kept as is) ------------------
+    public String put(byte[] data) {
+        String hash = sha256(data);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        try {
+            createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(data);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true); // durable before any LOB that it replaces is cleared
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory(target.getParent());
+            } catch (FileAlreadyExistsException e) {
+                // stored concurrently by another upload of the same image
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store image " + hash, e);
+        }
+    }
+
+    // Uploads: copied through Files.copy's fixed buffer and hashed on the way, never held in memory whole
+    public String put(InputStream content) {
+        try {
+            Path temp = Files.createTempFile(directory, "upload", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(content, digest)) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                Path target = pathOf(hash);
+                if (!Files.exists(target)) {
+                    createDirectories(target.getParent());
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                        syncDirectory(target.getParent());
+                    } catch (FileAlreadyExistsException e) {
+                        // stored concurrently by another upload of the same image
+                    }
+                }
+                return hash;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store uploaded image", e);
+        }
+    }
+
+    // ------------------ Read ------------------
+    public Optional<Path> find(String hash) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        Path path = pathOf(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + path.getFileName(), e);
+        }
+    }
+
+    // The first bytes only, enough to recognise the file type
+    public byte[] readHead(Path path, int length) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image " + path.getFileName(), e);
+        }
+    }
+
+    // Headers must already be set; the body is handed to the connector or copied channel to channel
+    public void send(Path path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size = Files.size(path);
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    // ------------------ Durability of the directory entries ------------------
+    // A forced file survives a crash, its name does not until the directory holding it is forced as well;
+    // without that the LOB a blob replaces could be cleared while the blob itself is lost
+    private void createDirectories(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return;
+        }
+        createDirectories(dir.getParent());
+        try {
+            Files.createDirectory(dir);
+        } catch (FileAlreadyExistsException e) {
+            return; // created concurrently; the creator syncs its parent
+        }
+        syncDirectory(dir.getParent());
+    }
+
+    // Windows can't open a directory as a channel; NTFS journals the rename itself
+    private static void syncDirectory(Path dir) throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a content hash: " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String sha256(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
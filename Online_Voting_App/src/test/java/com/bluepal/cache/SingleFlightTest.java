@@ -0,0 +1,235 @@
+package com.bluepal.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	private static final int FOLLOWERS = 8;
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersShareOneComputation() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 0, meters);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		Future<String> leader = pool.submit(() -> flight.get(1L, () -> {
+			loads.incrementAndGet();
+			await(release);
+			return "result";
+		}));
+		waitUntil(() -> loads.get() == 1);
+
+		List<Future<String>> followers = new ArrayList<>();
+		for (int i = 0; i < FOLLOWERS; i++) {
+			followers.add(pool.submit(() -> flight.get(1L, () -> {
+				loads.incrementAndGet();
+				return "second computation";
+			})));
+		}
+		waitUntil(() -> count("coalesced") == FOLLOWERS);
+		release.countDown();
+
+		assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+		for (Future<String> follower : followers) {
+			assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1.0, count("computed"));
+	}
+
+	@Test
+	void differentKeysDoNotShareAComputation() {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 60_000, meters);
+
+		assertEquals("a", flight.get(1L, () -> "a"));
+		assertEquals("b", flight.get(2L, () -> "b"));
+		assertEquals(2.0, count("computed"));
+	}
+
+	@Test
+	void aFinishedResultIsReusedWithinTheFreshWindow() {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 60_000, meters);
+
+		assertEquals("first", flight.get(1L, () -> "first"));
+		assertEquals("first", flight.get(1L, () -> "second"));
+		assertEquals(1.0, count("computed"));
+		assertEquals(1.0, count("fresh"));
+	}
+
+	@Test
+	void aFinishedResultIsRecomputedAfterTheFreshWindow() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 20, meters);
+
+		assertEquals("first", flight.get(1L, () -> "first"));
+		Thread.sleep(50);
+		assertEquals("second", flight.get(1L, () -> "second"));
+		assertEquals(2.0, count("computed"));
+		assertEquals(0.0, count("fresh"));
+	}
+
+	@Test
+	void invalidateEndsTheFreshWindow() {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 60_000, meters);
+
+		flight.get(1L, () -> "first");
+		flight.invalidate(1L);
+		assertEquals("second", flight.get(1L, () -> "second"));
+	}
+
+	@Test
+	void aLoaderExceptionReachesEveryCallerAndIsReusedWhileFresh() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 60_000, meters);
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalStateException failure = new IllegalStateException("Election not found");
+
+		Future<String> leader = pool.submit(() -> flight.get(1L, () -> {
+			await(release);
+			throw failure;
+		}));
+		waitUntil(() -> count("computed") == 1);
+		Future<String> follower = pool.submit(() -> flight.get(1L, () -> "second computation"));
+		waitUntil(() -> count("coalesced") == 1);
+		release.countDown();
+
+		assertSame(failure, cause(leader));
+		assertSame(failure, cause(follower));
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> flight.get(1L, () -> "fresh")));
+		assertEquals(1.0, count("fresh"));
+	}
+
+	@Test
+	void anErrorCompletesTheFlightInsteadOfStrandingFollowers() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 0, meters);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> leader = pool.submit(() -> flight.get(1L, () -> {
+			await(release);
+			throw new StackOverflowError("deep recursion");
+		}));
+		waitUntil(() -> count("computed") == 1);
+		Future<String> follower = pool.submit(() -> flight.get(1L, () -> "second computation"));
+		waitUntil(() -> count("coalesced") == 1);
+		release.countDown();
+
+		assertInstanceOf(StackOverflowError.class, cause(leader));
+		assertInstanceOf(StackOverflowError.class, cause(follower));
+		// Outside the fresh window the next caller computes again
+		assertEquals("recovered", flight.get(1L, () -> "recovered"));
+	}
+
+	@Test
+	void asyncCallersShareTheFirstCallersStart() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 0, meters);
+		CompletableFuture<String> work = new CompletableFuture<>();
+		AtomicInteger starts = new AtomicInteger();
+
+		List<CompletableFuture<String>> callers = new ArrayList<>();
+		for (int i = 0; i < FOLLOWERS; i++) {
+			callers.add(flight.getAsync(1L, () -> {
+				starts.incrementAndGet();
+				return work;
+			}));
+		}
+		assertEquals(1, starts.get());
+		assertEquals(FOLLOWERS - 1.0, count("coalesced"));
+
+		work.complete("result");
+		for (CompletableFuture<String> caller : callers) {
+			assertEquals("result", caller.get(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void anAsyncFailureReachesEveryCallerUnwrapped() {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 0, meters);
+		CompletableFuture<String> work = new CompletableFuture<>();
+		IllegalStateException failure = new IllegalStateException("Election not found");
+
+		CompletableFuture<String> leader = flight.getAsync(1L, () -> work);
+		CompletableFuture<String> follower = flight.getAsync(1L, CompletableFuture::new);
+		work.completeExceptionally(new CompletionException(failure));
+
+		assertSame(failure, assertThrows(CompletionException.class, leader::join).getCause());
+		assertSame(failure, assertThrows(CompletionException.class, follower::join).getCause());
+	}
+
+	@Test
+	void aStartThatFailsIsNotReused() {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 60_000, meters);
+
+		assertThrows(IllegalStateException.class, () -> flight.getAsync(1L, () -> {
+			throw new IllegalStateException("workers saturated");
+		}));
+		assertEquals("result", flight.getAsync(1L, () -> CompletableFuture.completedFuture("result")).join());
+		assertEquals(2.0, count("computed"));
+	}
+
+	@Test
+	void cancellingOneCallerDoesNotCancelTheFlight() throws Exception {
+		SingleFlight<Long, String> flight = new SingleFlight<>("test", 0, meters);
+		CompletableFuture<String> work = new CompletableFuture<>();
+
+		CompletableFuture<String> timedOut = flight.getAsync(1L, () -> work);
+		CompletableFuture<String> waiting = flight.getAsync(1L, () -> work);
+		timedOut.cancel(true);
+		work.complete("result");
+
+		assertEquals("result", waiting.get(5, TimeUnit.SECONDS));
+	}
+
+	// ------------------ Helpers ------------------
+	private double count(String outcome) {
+		return meters.counter("voting.results.requests", "endpoint", "test", "outcome", outcome).count();
+	}
+
+	private static Throwable cause(Future<?> future) throws Exception {
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		return e.getCause();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("condition not reached");
+			}
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.bluepal.cache;
+
+import com.bluepal.dto.CandidateVoteCountDTO;
+import com.bluepal.dto.TallyReconciliationDTO;
+import com.bluepal.ingest.VoteJournal;
+import com.bluepal.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoteTallyRegistryTest {
+
+	private static final Long ELECTION = 3L;
+	private static final Long CANDIDATE = 30L;
+
+	private final AtomicLong votesInTable = new AtomicLong();
+	private VoteRepository voteRepo;
+	private ObjectProvider<VoteJournal> voteJournal;
+	private VoteTallyRegistry registry;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		voteRepo = mock(VoteRepository.class);
+		when(voteRepo.countVotesByCandidate(ELECTION)).thenAnswer(invocation -> votesInTable.get() == 0
+				? List.of()
+				: List.of(new CandidateVoteCountDTO(CANDIDATE, votesInTable.get())));
+		voteJournal = mock(ObjectProvider.class);
+		registry = new VoteTallyRegistry(voteRepo, voteJournal);
+	}
+
+	@Test
+	void voteCommittedBeforeTheCountButCountedAfterIsNotCountedTwice() throws Exception {
+		// castVote: stamp taken before the insert, released once afterCompletion has incremented
+		long stamp = registry.beginUpdate(ELECTION);
+		votesInTable.incrementAndGet(); // committed
+
+		CompletableFuture<Void> seeding = CompletableFuture.runAsync(() -> registry.track(ELECTION));
+		assertThrows(TimeoutException.class, () -> seeding.get(200, TimeUnit.MILLISECONDS));
+
+		registry.increment(ELECTION, CANDIDATE);
+		registry.endUpdate(ELECTION, stamp);
+		seeding.get(10, TimeUnit.SECONDS);
+
+		assertEquals(Map.of(CANDIDATE, 1L), registry.counts(ELECTION).orElseThrow());
+	}
+
+	@Test
+	void votesAfterSeedingAreAddedToTheTableCount() {
+		votesInTable.set(4);
+		registry.track(ELECTION);
+
+		long stamp = registry.beginUpdate(ELECTION);
+		votesInTable.incrementAndGet();
+		registry.increment(ELECTION, CANDIDATE);
+		registry.endUpdate(ELECTION, stamp);
+
+		assertEquals(Map.of(CANDIDATE, 5L), registry.counts(ELECTION).orElseThrow());
+		assertTrue(registry.reconcile(ELECTION).isConsistent());
+	}
+
+	@Test
+	void reconcileRepairsDrift() {
+		votesInTable.set(2);
+		registry.track(ELECTION);
+		registry.increment(ELECTION, CANDIDATE); // a vote that never reached the table
+
+		TallyReconciliationDTO reconciliation = registry.reconcile(ELECTION);
+
+		assertFalse(reconciliation.isConsistent());
+		assertTrue(reconciliation.isRepaired());
+		assertEquals(Map.of(CANDIDATE, 3L), reconciliation.getLiveCounts());
+		assertEquals(Map.of(CANDIDATE, 2L), registry.counts(ELECTION).orElseThrow());
+		assertTrue(registry.reconcile(ELECTION).isConsistent());
+	}
+
+	@Test
+	void reconcileLeavesCountersAloneWhileTheJournalIsBehind() {
+		VoteJournal journal = mock(VoteJournal.class);
+		when(voteJournal.getIfAvailable()).thenReturn(journal);
+		when(journal.awaitApplied(any(Duration.class))).thenReturn(true);
+		registry.track(ELECTION);
+		registry.increment(ELECTION, CANDIDATE); // acknowledged, not yet in the votes table
+
+		when(journal.awaitApplied(any(Duration.class))).thenReturn(false);
+		TallyReconciliationDTO reconciliation = registry.reconcile(ELECTION);
+
+		assertFalse(reconciliation.isJournalDrained());
+		assertFalse(reconciliation.isRepaired());
+		assertEquals(Map.of(CANDIDATE, 1L), registry.counts(ELECTION).orElseThrow());
+	}
+
+	@Test
+	void untrackedElectionIsReportedNotSeeded() {
+		votesInTable.set(1);
+		TallyReconciliationDTO reconciliation = registry.reconcile(ELECTION);
+
+		assertFalse(reconciliation.isTracked());
+		assertFalse(reconciliation.isRepaired());
+		assertTrue(registry.counts(ELECTION).isEmpty());
+	}
+}
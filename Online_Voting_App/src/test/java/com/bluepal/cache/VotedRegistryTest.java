@@ -0,0 +1,137 @@
+package com.bluepal.cache;
+
+import com.bluepal.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VotedRegistryTest {
+
+	private static final Long ELECTION = 7L;
+
+	private VoteRepository voteRepo;
+	private VotedRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		voteRepo = mock(VoteRepository.class);
+		when(voteRepo.findVoterIds(anyLong(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+		registry = new VotedRegistry(voteRepo);
+	}
+
+	@Test
+	void idsOnEitherSideOfAPageBoundaryAreIndependent() {
+		assertTrue(registry.claim(ELECTION, 65_535L));
+		assertTrue(registry.claim(ELECTION, 65_536L));
+		assertFalse(registry.claim(ELECTION, 65_535L));
+		assertFalse(registry.claim(ELECTION, 65_536L));
+
+		registry.release(ELECTION, 65_536L);
+		assertFalse(registry.claim(ELECTION, 65_535L));
+		assertTrue(registry.claim(ELECTION, 65_536L));
+	}
+
+	@Test
+	void firstAndLastBitOfAWordAreIndependent() {
+		assertTrue(registry.claim(ELECTION, 0L));
+		assertTrue(registry.claim(ELECTION, 63L));
+		assertTrue(registry.claim(ELECTION, 64L));
+		assertTrue(registry.claim(ELECTION, (long) Integer.MAX_VALUE));
+		assertFalse(registry.claim(ELECTION, 63L));
+		assertTrue(registry.claim(ELECTION, 62L));
+	}
+
+	@Test
+	void electionsAreIndependent() {
+		assertTrue(registry.claim(ELECTION, 5L));
+		assertTrue(registry.claim(ELECTION + 1, 5L));
+	}
+
+	@Test
+	void exactlyOneConcurrentClaimOfTheSameVoterWins() throws Exception {
+		int threads = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (long voter = 65_530; voter < 65_542; voter++) {
+				long userId = voter;
+				CountDownLatch start = new CountDownLatch(1);
+				AtomicInteger wins = new AtomicInteger();
+				Future<?>[] claims = new Future<?>[threads];
+				for (int i = 0; i < threads; i++) {
+					claims[i] = pool.submit(() -> {
+						start.await();
+						if (registry.claim(ELECTION, userId)) {
+							wins.incrementAndGet();
+						}
+						return null;
+					});
+				}
+				start.countDown();
+				for (Future<?> claim : claims) {
+					claim.get(10, TimeUnit.SECONDS);
+				}
+				assertEquals(1, wins.get(), "voter " + userId);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		// The roll of existing votes is loaded once, however many claims race on a cold election
+		verify(voteRepo, times(1)).findVoterIds(eq(ELECTION), anyLong(), any(Pageable.class));
+	}
+
+	@Test
+	void releaseAfterRollbackLetsTheVoterVoteAgain() {
+		assertTrue(registry.claim(ELECTION, 42L));
+		assertTrue(registry.claim(ELECTION, 43L));
+
+		// VoteServiceImpl releases the claim when the vote's transaction does not commit
+		registry.release(ELECTION, 42L);
+
+		assertTrue(registry.claim(ELECTION, 42L));
+		assertFalse(registry.claim(ELECTION, 43L));
+	}
+
+	@Test
+	void releaseOfAnUnclaimedVoterIsHarmless() {
+		registry.release(ELECTION, 99L);
+		registry.release(ELECTION + 1, 99L);
+		assertTrue(registry.claim(ELECTION, 99L));
+	}
+
+	@Test
+	void votersAlreadyInTheVotesTableCannotClaim() {
+		when(voteRepo.findVoterIds(eq(ELECTION), eq(0L), any(Pageable.class))).thenReturn(List.of(3L, 65_536L));
+
+		assertFalse(registry.claim(ELECTION, 3L));
+		assertFalse(registry.claim(ELECTION, 65_536L));
+		assertTrue(registry.claim(ELECTION, 4L));
+	}
+
+	@Test
+	void evictReloadsFromTheVotesTable() {
+		assertTrue(registry.claim(ELECTION, 11L));
+		registry.evict(ELECTION);
+		when(voteRepo.findVoterIds(eq(ELECTION), eq(0L), any(Pageable.class))).thenReturn(List.of(11L));
+
+		assertFalse(registry.claim(ELECTION, 11L));
+	}
+}
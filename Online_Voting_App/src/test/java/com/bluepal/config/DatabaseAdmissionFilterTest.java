@@ -0,0 +1,75 @@
+package com.bluepal.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DatabaseAdmissionFilterTest {
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final DatabaseAdmissionFilter filter = new DatabaseAdmissionFilter(1, 10, 0, meters);
+
+	@Test
+	void aSynchronousRequestReleasesItsPermitWhenItReturns() throws Exception {
+		filter.doFilter(apiRequest(), new MockHttpServletResponse(), (request, response) -> { });
+
+		assertEquals(0.0, inFlight());
+	}
+
+	@Test
+	void anAsynchronousRequestKeepsItsPermitUntilItCompletes() throws Exception {
+		MockHttpServletRequest request = apiRequest();
+		filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+
+		assertEquals(1.0, inFlight());
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), rejected, (req, res) -> { });
+		assertEquals(503, rejected.getStatus());
+
+		((MockAsyncContext) request.getAsyncContext()).complete();
+		assertEquals(0.0, inFlight());
+	}
+
+	@Test
+	void aTimedOutRequestReleasesItsPermitOnce() throws Exception {
+		MockHttpServletRequest request = apiRequest();
+		filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+
+		MockAsyncContext async = (MockAsyncContext) request.getAsyncContext();
+		async.getListeners().forEach(listener -> {
+			try {
+				listener.onTimeout(null);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		async.complete();
+
+		assertEquals(0.0, inFlight());
+		filter.doFilter(apiRequest(), new MockHttpServletResponse(), startAsync());
+		assertEquals(1.0, inFlight()); // one permit, not two
+	}
+
+	private FilterChain startAsync() {
+		return (request, response) -> {
+			AsyncContext async = request.startAsync();
+			async.setTimeout(0);
+		};
+	}
+
+	private static MockHttpServletRequest apiRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/votes");
+		request.setAsyncSupported(true);
+		return request;
+	}
+
+	private double inFlight() {
+		return meters.get("voting.admission.in.flight").gauge().value();
+	}
+}
@@ -0,0 +1,229 @@
+package com.bluepal.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class VoteJournalTest {
+
+	private static final int RECORD_SIZE = 36;
+	private static final LocalDateTime CAST_AT = LocalDateTime.of(2026, 5, 1, 10, 0);
+
+	@TempDir
+	Path dir;
+
+	private final List<VoteJournal> started = new ArrayList<>();
+	// voterUserId of every vote handed to the rejection listener
+	private final List<Long> takenBack = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterEach
+	void stopAll() throws Exception {
+		for (VoteJournal journal : started) {
+			journal.stop();
+		}
+	}
+
+	@Test
+	void appliedVotesAreInserted() throws Exception {
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		VoteJournal journal = start(recording(applied));
+
+		journal.append(1L, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+		journal.append(2L, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+
+		assertTrue(journal.awaitApplied(Duration.ofSeconds(5)));
+		assertEquals(List.of(1L, 2L), applied);
+		assertTrue(takenBack.isEmpty());
+	}
+
+	@Test
+	void acknowledgedVotesAreReplayedAfterARestart() throws Exception {
+		journalWhileDatabaseIsDown(1L, 2L, 3L);
+
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		start(recording(applied));
+
+		assertEquals(List.of(1L, 2L, 3L), applied);
+	}
+
+	@Test
+	void replayResumesFromTheCheckpoint() throws Exception {
+		journalWhileDatabaseIsDown(1L, 2L, 3L);
+		writeCheckpoint(RECORD_SIZE); // the first vote was applied before the crash
+
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		start(recording(applied));
+
+		assertEquals(List.of(2L, 3L), applied);
+	}
+
+	@Test
+	void checkpointPastTheEndOfTheJournalReplaysEverything() throws Exception {
+		journalWhileDatabaseIsDown(1L, 2L);
+		writeCheckpoint(10L * RECORD_SIZE);
+
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		start(recording(applied));
+
+		assertEquals(List.of(1L, 2L), applied);
+	}
+
+	@Test
+	void aTornTailIsCutOffAndLaterAppendsStayAligned() throws Exception {
+		journalWhileDatabaseIsDown(1L, 2L);
+		try (FileChannel channel = FileChannel.open(dir.resolve("votes.journal"), StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[RECORD_SIZE / 2])); // crash halfway through a write
+		}
+
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		VoteJournal journal = start(recording(applied));
+		journal.append(3L, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+
+		assertTrue(journal.awaitApplied(Duration.ofSeconds(5)));
+		assertEquals(List.of(1L, 2L, 3L), applied);
+	}
+
+	@Test
+	void aRecordWithABadChecksumEndsTheJournal() throws Exception {
+		journalWhileDatabaseIsDown(1L, 2L, 3L);
+		try (FileChannel channel = FileChannel.open(dir.resolve("votes.journal"), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer oneByte = ByteBuffer.allocate(1);
+			channel.read(oneByte, RECORD_SIZE + 3);
+			oneByte.flip();
+			byte flipped = (byte) (oneByte.get() ^ 0x5A);
+			channel.write(ByteBuffer.wrap(new byte[] { flipped }), RECORD_SIZE + 3); // corrupt the second record
+		}
+
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		start(recording(applied));
+
+		assertEquals(List.of(1L), applied);
+		assertEquals(0, Files.size(dir.resolve("votes.journal")) % RECORD_SIZE);
+	}
+
+	@Test
+	void rowsTheTableRefusesAreMovedToRejectedVotes() throws Exception {
+		JdbcTemplate jdbc = mock(JdbcTemplate.class);
+		List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+		List<Long> rejected = Collections.synchronizedList(new ArrayList<>());
+		doThrow(new DataIntegrityViolationException("fk")).when(jdbc).batchUpdate(anyString(), anyList());
+		doAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			if ((Long) args[1] == 2L) {
+				throw new DataIntegrityViolationException("candidate_id references a deleted candidate");
+			}
+			applied.add((Long) args[1]);
+			return 1;
+		}).when(jdbc).update(startsWith("INSERT INTO votes"), any(Object[].class));
+		doAnswer(invocation -> {
+			rejected.add((Long) invocation.getArguments()[1]);
+			return 1;
+		}).when(jdbc).update(startsWith("INSERT INTO rejected_votes"), any(Object[].class));
+
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+		VoteJournal journal = start(jdbc, meters);
+		for (long voter = 1; voter <= 3; voter++) {
+			journal.append(voter, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+		}
+
+		assertTrue(journal.awaitApplied(Duration.ofSeconds(5)));
+		assertEquals(List.of(1L, 3L), applied);
+		assertEquals(List.of(2L), rejected);
+		assertEquals(List.of(2L), takenBack);
+		assertEquals(1.0, meters.counter("voting.ingest.rejected").count());
+	}
+
+	@Test
+	void aBatchIsRetriedWhenItsRejectionCannotBeRecorded() throws Exception {
+		JdbcTemplate jdbc = mock(JdbcTemplate.class);
+		List<Long> rejected = Collections.synchronizedList(new ArrayList<>());
+		doThrow(new DataIntegrityViolationException("fk")).when(jdbc).batchUpdate(anyString(), anyList());
+		doThrow(new DataIntegrityViolationException("fk"))
+				.when(jdbc).update(startsWith("INSERT INTO votes"), any(Object[].class));
+		doThrow(new DataAccessResourceFailureException("connection lost"))
+				.doAnswer(invocation -> {
+					rejected.add((Long) invocation.getArguments()[1]);
+					return 1;
+				})
+				.when(jdbc).update(startsWith("INSERT INTO rejected_votes"), any(Object[].class));
+
+		VoteJournal journal = start(jdbc, new SimpleMeterRegistry());
+		journal.append(1L, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+
+		assertTrue(journal.awaitApplied(Duration.ofSeconds(5)));
+		assertEquals(List.of(1L), rejected);
+		assertEquals(List.of(1L), takenBack); // once, although the batch ran twice
+	}
+
+	// ------------------ Helpers ------------------
+	// Journals the votes while every insert fails, then stops: they stay in the journal past the checkpoint
+	private void journalWhileDatabaseIsDown(Long... voterIds) throws Exception {
+		JdbcTemplate down = mock(JdbcTemplate.class);
+		doThrow(new DataAccessResourceFailureException("database down")).when(down).batchUpdate(anyString(), anyList());
+		VoteJournal journal = newJournal(down, new SimpleMeterRegistry());
+		journal.start();
+		for (Long voterId : voterIds) {
+			journal.append(voterId, 10L, 100L, CAST_AT).get(5, TimeUnit.SECONDS);
+		}
+		journal.stop();
+	}
+
+	private JdbcTemplate recording(List<Long> applied) {
+		JdbcTemplate jdbc = mock(JdbcTemplate.class);
+		doAnswer(invocation -> {
+			List<Object[]> rows = invocation.getArgument(1);
+			rows.forEach(row -> applied.add((Long) row[0]));
+			return new int[rows.size()];
+		}).when(jdbc).batchUpdate(anyString(), anyList());
+		return jdbc;
+	}
+
+	private VoteJournal start(JdbcTemplate jdbc) throws IOException {
+		return start(jdbc, new SimpleMeterRegistry());
+	}
+
+	private VoteJournal start(JdbcTemplate jdbc, SimpleMeterRegistry meters) throws IOException {
+		VoteJournal journal = newJournal(jdbc, meters);
+		journal.start();
+		started.add(journal);
+		return journal;
+	}
+
+	private VoteJournal newJournal(JdbcTemplate jdbc, SimpleMeterRegistry meters) {
+		return new VoteJournal(jdbc, dir.toString(), 100, 16, 100, 5, meters,
+				List.of((voterUserId, candidateId, electionId) -> takenBack.add(voterUserId)));
+	}
+
+	private void writeCheckpoint(long offset) throws IOException {
+		Files.write(dir.resolve("votes.checkpoint"), ByteBuffer.allocate(Long.BYTES).putLong(offset).array());
+	}
+}
@@ -1,4 +1,5 @@
 import React, { useState, useEffect } from "react";
+import { mediaUrl } from "../utils/helpers";
 import axiosConfig from "../api/axiosConfig";
 import {
   CardContent,
@@ -44,8 +45,8 @@ const CandidateForm = ({ onCandidateSaved, editingCandidate }) => {
         electionId: editingCandidate.election?.id || "",
         photo: null,
       });
-      if (editingCandidate.photo) {
-        setPreview(`data:image/png;base64,${editingCandidate.photo}`);
+      if (editingCandidate.photoUrl) {
+        setPreview(mediaUrl(editingCandidate.photoUrl, "ballot"));
       }
     } else {
       resetForm();
@@ -87,35 +88,27 @@ const CandidateForm = ({ onCandidateSaved, editingCandidate }) => {
     }
   };
 
-  const toBase64 = (file) =>
-    new Promise((resolve, reject) => {
-      const reader = new FileReader();
-      reader.readAsArrayBuffer(file);
-      reader.onload = () => resolve(reader.result);
-      reader.onerror = (error) => reject(error);
-    });
-
   const handleSubmit = async (e) => {
     e.preventDefault();
     setLoading(true);
     setError("");
     try {
-      let photoBytes = null;
-      if (formData.photo) {
-        const buffer = await toBase64(formData.photo);
-        photoBytes = Array.from(new Uint8Array(buffer));
-      }
       const payload = {
         name: formData.name,
         bio: formData.bio,
         partyId: Number(formData.partyId),
         electionId: Number(formData.electionId),
-        photo: photoBytes,
       };
-      if (editingCandidate) {
-        await axiosConfig.put(`/candidates/${editingCandidate.id}`, payload);
-      } else {
-        await axiosConfig.post("/candidates", payload);
+      const res = editingCandidate
+        ? await axiosConfig.put(`/candidates/${editingCandidate.id}`, payload)
+        : await axiosConfig.post("/candidates", payload);
+      // The photo goes up as a file of its own rather than a byte array inside the JSON
+      if (formData.photo) {
+        const upload = new FormData();
+        upload.append("file", formData.photo);
+        await axiosConfig.put(`/candidates/${res.data.id}/photo`, upload, {
+          headers: { "Content-Type": "multipart/form-data" },
+        });
       }
       resetForm();
       if (onCandidateSaved) onCandidateSaved();
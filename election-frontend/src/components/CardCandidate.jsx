@@ -1,4 +1,5 @@
 import React from "react";
+import { mediaUrl } from "../utils/helpers";
 import {
   Card,
   CardMedia,
@@ -51,8 +52,8 @@ const CardCandidate = ({ candidate, onEditClick, onDeleteClick }) => {
       <Box sx={{ p: 3, display: 'flex', justifyContent: 'center' }}>
         <Avatar
           src={
-            candidate.photo
-              ? `data:image/png;base64,${candidate.photo}`
+            candidate.photoUrl
+              ? mediaUrl(candidate.photoUrl, "ballot")
               : "/default-avatar.png"
           }
           alt={candidate.name}
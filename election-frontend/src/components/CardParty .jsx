@@ -1,4 +1,5 @@
 import React from "react";
+import { mediaUrl } from "../utils/helpers";
 import {
   Card,
   CardContent,
@@ -47,7 +48,7 @@ const CardParty = ({ party, onEditClick, onDeleteClick }) => {
       
       <CardContent sx={{ flexGrow: 1, display: 'flex', flexDirection: 'column', alignItems: 'center', p: 3 }}>
         <Avatar
-          src={party.logo ? `data:image/png;base64,${party.logo}` : "/default-logo.png"}
+          src={party.logoUrl ? mediaUrl(party.logoUrl, "ballot") : "/default-logo.png"}
           alt={party.name}
           sx={{ 
             width: 80, 
@@ -1,4 +1,5 @@
 import React, { useState, useEffect } from "react";
+import { mediaUrl } from "../utils/helpers";
 import axiosConfig from "../api/axiosConfig";
 import {
   TextField,
@@ -29,10 +30,8 @@ export default function PartyForm({ onPartySaved, editingParty, onCancelEdit })
     if (editingParty) {
       setName(editingParty.name || "");
       setDescription(editingParty.description || "");
-      setLogo(editingParty.logo || null);
-      setPreview(
-        editingParty.logo ? `data:image/png;base64,${editingParty.logo}` : null
-      );
+      setLogo(null); // keep the current logo unless a new one is chosen
+      setPreview(mediaUrl(editingParty.logoUrl, "ballot"));
     } else {
       resetForm();
     }
@@ -41,10 +40,9 @@ export default function PartyForm({ onPartySaved, editingParty, onCancelEdit })
   const handleLogoChange = (e) => {
     const file = e.target.files[0];
     if (!file) return;
+    setLogo(file);
     const reader = new FileReader();
     reader.onloadend = () => {
-      const base64String = reader.result.split(",")[1];
-      setLogo(base64String);
       setPreview(reader.result);
     };
     reader.readAsDataURL(file);
@@ -63,13 +61,21 @@ export default function PartyForm({ onPartySaved, editingParty, onCancelEdit })
     setLoading(true);
     setError("");
     try {
-      const payload = { name, description, logo };
+      const payload = { name, description };
       let response;
       if (editingParty) {
         response = await axiosConfig.put(`/parties/${editingParty.id}`, payload);
       } else {
         response = await axiosConfig.post("/parties", payload);
       }
+      // The logo goes up as a file of its own rather than base64 inside the JSON
+      if (logo) {
+        const upload = new FormData();
+        upload.append("file", logo);
+        response = await axiosConfig.put(`/parties/${response.data.id}/logo`, upload, {
+          headers: { "Content-Type": "multipart/form-data" },
+        });
+      }
       onPartySaved(response.data);
       resetForm();
     } catch (err) {
@@ -241,7 +247,7 @@ export default function PartyForm({ onPartySaved, editingParty, onCancelEdit })
           mt={1}
           color="text.secondary"
         >
-          Recommended: Square image, max 2MB
+          Recommended: Square image, max 5MB
         </Typography>
       </Box>
       
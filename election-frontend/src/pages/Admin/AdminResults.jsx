@@ -1,5 +1,6 @@
 // src/pages/Admin/AdminResults.js
 import React, { useEffect, useState } from "react";
+import { mediaUrl } from "../../utils/helpers";
 import axiosConfig from "../../api/axiosConfig";
 import {
   BarChart,
@@ -99,11 +100,6 @@ const AdminResults = () => {
     return status === statusFilter;
   });
 
-  const toBase64Image = (bytes) => {
-    if (!bytes) return null;
-    return `data:image/png;base64,${bytes}`;
-  };
-
   const toggleExpand = (index) => {
     setExpandedElection((prev) => (prev === index ? null : index));
   };
@@ -438,7 +434,7 @@ const AdminResults = () => {
                       >
                         <ListItemAvatar>
                           <Avatar 
-                            src={toBase64Image(c.candidatePhoto)}
+                            src={mediaUrl(c.candidatePhotoUrl, "thumbnail")}
                             alt={c.candidateName}
                             sx={{ 
                               width: 56, 
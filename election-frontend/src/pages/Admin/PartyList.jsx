@@ -1,4 +1,5 @@
 import React, { useEffect, useState } from "react";
+import { mediaUrl } from "../../utils/helpers";
 import axiosInstance from "../../api/axiosConfig";
 import PartyForm from "../../components/PartyForm";
 import {
@@ -378,9 +379,9 @@ const PartyList = () => {
                         </Typography>
                       </TableCell>
                       <TableCell>
-                        {party.logo ? (
+                        {party.logoUrl ? (
                           <Avatar
-                            src={`data:image/png;base64,${party.logo}`}
+                            src={mediaUrl(party.logoUrl, "thumbnail")}
                             alt={party.name}
                             variant="rounded"
                             sx={{ 
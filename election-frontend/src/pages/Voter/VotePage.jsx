@@ -1,5 +1,6 @@
 // src/pages/Voter/VotePage.jsx
 import React, { useEffect, useState } from "react";
+import { mediaUrl } from "../../utils/helpers";
 import { useParams, useNavigate } from "react-router-dom";
 import axiosConfig from "../../api/axiosConfig";
 import {
@@ -30,7 +31,7 @@ const VotePage = () => {
 
   const fetchElection = async () => {
     try {
-      const response = await axiosConfig.get(`/elections/${electionId}`);
+      const response = await axiosConfig.get(`/elections/${electionId}/ballot`);
       setElection({
         ...response.data,
         candidates: response.data.candidates || [],
@@ -238,8 +239,8 @@ const VotePage = () => {
                   {/* Candidate Image */}
                   <img
                     src={
-                      c.photo
-                        ? `data:image/png;base64,${c.photo}`
+                      c.photoUrl
+                        ? mediaUrl(c.photoUrl, "ballot")
                         : "/images/default-avatar.png"
                     }
                     alt={c.name}
@@ -284,10 +285,10 @@ const VotePage = () => {
                       </Typography>
                     </Box>
                     
-                    {c.party?.logo && (
+                    {c.party?.logoUrl && (
                       <Box>
                         <img
-                          src={`data:image/png;base64,${c.party.logo}`}
+                          src={mediaUrl(c.party.logoUrl, "ballot")}
                           alt={`${c.party.name} logo`}
                           style={{
                             width: "100px",
@@ -1,5 +1,6 @@
 // src/pages/Voter/VoterResults.js
 import React, { useEffect, useState } from "react";
+import { mediaUrl } from "../../utils/helpers";
 import { useParams } from "react-router-dom";
 import axiosConfig from "../../api/axiosConfig";
 import { parseISTDate, getNowIST } from "../../utils/dateUtils";
@@ -38,11 +39,6 @@ const VoterResults = () => {
     }
   };
 
-  const toBase64Image = (bytes) => {
-    if (!bytes) return null;
-    return `data:image/png;base64,${bytes}`;
-  };
-
   if (loading)
     return (
       <Box 
@@ -211,7 +207,7 @@ const VoterResults = () => {
           
           <CardContent sx={{ display: "flex", alignItems: "center", gap: 2, p: 3 }}>
             <Avatar
-              src={toBase64Image(c.candidatePhoto)}
+              src={mediaUrl(c.candidatePhotoUrl, "thumbnail")}
               alt={c.candidateName}
               sx={{ 
                 width: 60, 
@@ -259,9 +255,9 @@ const VoterResults = () => {
               />
             </Box>
             
-            {c.partyLogo && (
+            {c.partyLogoUrl && (
               <Avatar
-                src={toBase64Image(c.partyLogo)}
+                src={mediaUrl(c.partyLogoUrl, "thumbnail")}
                 alt={c.partyName}
                 variant="square"
                 sx={{ 
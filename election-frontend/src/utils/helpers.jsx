@@ -59,6 +59,17 @@ export const showAlert = (message, type = "info") => {
   alert(`${type.toUpperCase()}: ${message}`);
 };
 
+// ------------------ Media URL Helper ------------------
+// Photos and logos come back as "/api/media/..." paths; resolve them against the API host.
+// size: "thumbnail" (96px), "ballot" (320px) or "full" (1280px); omit for the original upload
+export const mediaUrl = (path, size) => {
+  if (!path) return null;
+  const apiBase = process.env.REACT_APP_API_URL || "http://localhost:8080/api";
+  const url = new URL(path, new URL(apiBase, window.location.origin));
+  if (size) url.searchParams.set("size", size);
+  return url.href;
+};
+
 // ------------------ Truncate Text Helper ------------------
 export const truncateText = (text, maxLength = 50) => {
   if (!text) return "";